@@ -0,0 +1,135 @@
+package com.stability.coareport.benchmark;
+
+import com.stability.coareport.dto.TestResultDto;
+import com.stability.coareport.service.PdfLayout;
+import com.stability.coareport.service.PdfLayoutExtractor;
+import com.stability.coareport.service.PdfPageExecutor;
+import com.stability.coareport.service.SecondTableExtractorService;
+import com.stability.coareport.support.SyntheticCoaPdfs;
+import com.stability.coareport.util.CoaPatterns;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-cell and per-line regex cost: the precompiled {@link CoaPatterns} against the inline
+ * {@code String.replaceAll}/{@code matches} chains they replaced, on text typical of CoA rows.
+ * The page arms run the whole second-table parser, old ({@link BaselineSecondTableExtractor}) and
+ * current, over one synthetic CoA page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatternRegistryBenchmark {
+
+    private final String[] cells = {
+            "  Assay  ( by  HPLC ) :",
+            "90.0% - 110.0% of the labelled amount",
+            "White to off-white, capsule shaped tablets   Checked by r.kumar",
+            "NMT 2.0%   Stability Pharma Limited, Plot No. 42, Industrial Area",
+    };
+
+    private final String[] lines = {
+            "2.1 amoxicillin 99.2% 90.0% - 110.0% of the labelled amount",
+            "format no. qa/f/012-02 date: 14-jul-2023",
+            "stability pharma limited, plot no. 42, industrial area, hyderabad - 500072",
+            "checked by r.kumar jul 14 2023 10:42 am",
+    };
+
+    private Path pdf;
+    private PdfLayout page;
+    private BaselineSecondTableExtractor baselineExtractor;
+    private SecondTableExtractorService extractor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticCoaPdfs.quietLogging();
+        pdf = SyntheticCoaPdfs.create(1);
+        PdfLayoutExtractor layoutExtractor = new PdfLayoutExtractor(PdfPageExecutor.sequential());
+        page = layoutExtractor.extract(pdf);
+        baselineExtractor = new BaselineSecondTableExtractor();
+        extractor = new SecondTableExtractorService(layoutExtractor, PdfPageExecutor.sequential());
+
+        int baselineRows = baselineExtractor.parsePage(page.getPages().get(0)).size();
+        int rows = extractor.extractTestResults(page).size();
+        if (rows == 0 || rows != baselineRows) {
+            throw new IllegalStateException("Page parsers disagree: " + baselineRows + " vs " + rows + " test results");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(pdf);
+    }
+
+    @Benchmark
+    public List<TestResultDto> pageBaseline() {
+        return baselineExtractor.parsePage(page.getPages().get(0));
+    }
+
+    @Benchmark
+    public List<TestResultDto> pagePrecompiled() throws IOException {
+        return extractor.extractTestResults(page);
+    }
+
+    @Benchmark
+    public void cleanCellPrecompiled(Blackhole bh) {
+        for (String cell : cells) {
+            String t = CoaPatterns.normalizeCellText(cell);
+            t = CoaPatterns.FOOTER_LABEL_TAIL.matcher(t).replaceAll("");
+            bh.consume(CoaPatterns.stripAddressTails(t));
+        }
+    }
+
+    @Benchmark
+    public void cleanCellInline(Blackhole bh) {
+        for (String cell : cells) {
+            String t = cell.trim();
+            t = t.replaceAll("[:\\-]+$", "");
+            t = t.replaceAll("\\s+", " ");
+            t = t.replaceAll("\\(\\s+", "(").replaceAll("\\s+\\)", ")");
+            t = t.replaceAll("(?i)\\s*Remarks:.*$", "");
+            t = t.replaceAll("(?i)\\s*Comment\\(s\\):.*$", "");
+            t = t.replaceAll("(?i)\\s*Checked [Bb]y.*$", "");
+            t = t.replaceAll("(?i)\\s*Approved [Bb]y.*$", "");
+            t = t.replaceAll("(?i)\\s*Checked [Oo]n.*$", "");
+            t = t.replaceAll("(?i)\\s*Approved [Oo]n.*$", "");
+            t = t.replaceAll("(?i)\\s*Printed [Bb]y:.*$", "");
+            t = t.replaceAll("(?i)\\s*Printed [Oo]n:.*$", "");
+            t = t.replaceAll("(?i)\\s*Copy [Nn]o\\.?:.*$", "");
+            t = t.replaceAll("(?i)\\s*Page [Nn]o\\.?:.*$", "");
+            t = t.replaceAll("\\s*Date:.*$", "");
+
+            t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+(Pharma|Pharmaceuticals?)\\s+(Limited|Ltd\\.?|Pvt\\.?).*$", "");
+            t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+,\\s*Plot\\s+(no\\.?|Nos?\\.?).*$", "");
+            t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}\\s*$", "");
+            bh.consume(t.replaceAll("(?i)\\s*[A-Za-z\\s]+,\\s*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}.*$", ""));
+        }
+    }
+
+    @Benchmark
+    public void footerLinePrecompiled(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(CoaPatterns.FOOTER_LINE.matcher(line).find());
+        }
+    }
+
+    @Benchmark
+    public void footerLineInline(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(line.matches(".*\\bdate:.*")
+                    || line.matches("(?i).*(pharma|pharmaceuticals?)\\s+(limited|ltd\\.?|pvt\\.?).*")
+                    || line.matches("(?i).*plot\\s+(no\\.?|nos?\\.?|number).*")
+                    || line.matches(".*\\d{5,6}\\s*$")
+                    || line.matches("(?i).*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}.*"));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.stability.coareport.benchmark;
+
+import com.stability.coareport.dto.ParsedPdfData;
+import com.stability.coareport.dto.TestResultDto;
+import com.stability.coareport.service.PdfLayout;
+import com.stability.coareport.service.PdfLayoutExtractor;
+import com.stability.coareport.service.PdfPageExecutor;
+import com.stability.coareport.service.PdfParserService;
+import com.stability.coareport.service.SecondTableExtractorService;
+import com.stability.coareport.support.SyntheticCoaPdfs;
+import example.pdf.COAExtractorAllPage119;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the three CoA parsers on synthetic 1, 10 and 100 page documents, plus the two
+ * stages of {@link PdfParserService} on their own: PDFBox layout extraction and parsing a layout.
+ * <p>
+ * Run with {@code mvn -Pjmh compile exec:exec}; add {@code -Djmh.args="PdfParserBenchmark -prof gc"}
+ * for allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfParserBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int pages;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private Path pdf;
+    private PdfPageExecutor pageExecutor;
+    private PdfLayoutExtractor layoutExtractor;
+    private PdfParserService parserService;
+    private SecondTableExtractorService secondTableExtractor;
+    private PdfLayout layout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticCoaPdfs.quietLogging();
+        pdf = SyntheticCoaPdfs.create(pages);
+        pageExecutor = parallel ? new PdfPageExecutor(true, 8, 0) : PdfPageExecutor.sequential();
+        layoutExtractor = new PdfLayoutExtractor(pageExecutor);
+        parserService = new PdfParserService(layoutExtractor, pageExecutor);
+        secondTableExtractor = new SecondTableExtractorService(layoutExtractor, pageExecutor);
+        layout = layoutExtractor.extract(pdf);
+
+        ParsedPdfData check = parserService.parse(layout);
+        if (check.getTestResults() == null || check.getTestResults().isEmpty()) {
+            throw new IllegalStateException("Synthetic CoA produced no test results; benchmark would be meaningless");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pageExecutor.shutdown();
+        Files.deleteIfExists(pdf);
+    }
+
+    @Benchmark
+    public ParsedPdfData fullDocument() throws IOException {
+        return parserService.parse(layoutExtractor.extract(pdf));
+    }
+
+    @Benchmark
+    public PdfLayout stageExtractLayout() throws IOException {
+        return layoutExtractor.extract(pdf);
+    }
+
+    @Benchmark
+    public ParsedPdfData stageParseLayout() throws IOException {
+        return parserService.parse(layout);
+    }
+
+    @Benchmark
+    public List<TestResultDto> secondTableExtractor() throws IOException {
+        return secondTableExtractor.extractTestResults(layout);
+    }
+
+    @Benchmark
+    public COAExtractorAllPage119.Result coaExtractorAllPage119() throws Exception {
+        return COAExtractorAllPage119.extract(pdf.toFile());
+    }
+}
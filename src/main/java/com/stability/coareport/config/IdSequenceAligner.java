@@ -0,0 +1,88 @@
+package com.stability.coareport.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+/**
+ * Reports and test results take their ids from pooled sequences (increment 50), which the schema
+ * update creates starting at 1. Tables that were filled while the ids were IDENTITY columns already
+ * hold those ids, so before the first insert each sequence is moved past the table's highest id.
+ * <p>
+ * With the pooled optimizer a sequence value {@code v} hands out {@code v-49..v}, so the next value
+ * has to be at least {@code MAX(id) + 50}. The sequence is read with the dialect's next-value query
+ * (costing one unused block per start) and only ever restarted forwards.
+ * <p>
+ * Nodes starting together would each read the same highest id and the same sequence value, and a
+ * restart computed from stale values could move the sequence back below ids another node has
+ * already handed out. On PostgreSQL every check-and-restart therefore runs in a transaction holding
+ * a transaction-scoped advisory lock, so the nodes align one after the other and later ones find
+ * the sequence already ahead.
+ */
+@Component
+public class IdSequenceAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    /** allocationSize of the {@code @SequenceGenerator}s on Report and TestResult. */
+    static final int ALLOCATION_SIZE = 50;
+
+    /** Advisory lock key, the same on every node. */
+    static final long LOCK_KEY = IdSequenceAligner.class.getName().hashCode();
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "reports_seq", "reports",
+            "test_results_seq", "test_results"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Dialect dialect;
+
+    // The EntityManagerFactory also guarantees the schema update has created the sequences
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @PostConstruct
+    public void align() {
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> align(sequence, table));
+            } catch (RuntimeException e) {
+                logger.warn("Could not align sequence {} with {}: {}", sequence, table, e.getMessage());
+            }
+        });
+    }
+
+    private void align(String sequence, String table) {
+        if (dialect instanceof PostgreSQLDialect) {
+            // Released on commit or rollback
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, LOCK_KEY);
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        if (maxId == null || maxId == 0) {
+            return;
+        }
+        Long next = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        if (next != null && next - (ALLOCATION_SIZE - 1) > maxId) {
+            return;
+        }
+        long restart = maxId + ALLOCATION_SIZE;
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+        logger.info("Sequence {} moved past {}.id {} (next value {})", sequence, table, maxId, restart);
+    }
+}
@@ -0,0 +1,56 @@
+package com.stability.coareport.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request issues ({@code jpa.statements.per.request}) and logs
+ * requests that go over {@code jpa.statement-budget.max-per-request}.
+ */
+@Component
+@Profile(StatementBudgetInspector.PROFILE)
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementBudgetFilter.class);
+
+    private final StatementBudgetInspector inspector;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary statementsPerRequest;
+
+    public StatementBudgetFilter(StatementBudgetInspector inspector, MeterRegistry meterRegistry) {
+        this.inspector = inspector;
+        this.meterRegistry = meterRegistry;
+        this.statementsPerRequest = DistributionSummary.builder("jpa.statements.per.request")
+                .description("SQL statements issued while serving one HTTP request")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        inspector.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = inspector.end();
+            statementsPerRequest.record(statements);
+            int max = inspector.getMaxStatements();
+            if (max > 0 && statements > max) {
+                meterRegistry.counter("jpa.statement.budget.exceeded").increment();
+                log.warn("{} {} issued {} SQL statements (budget {})",
+                        request.getMethod(), request.getRequestURI(), statements, max);
+            }
+        }
+    }
+}
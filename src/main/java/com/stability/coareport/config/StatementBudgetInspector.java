@@ -0,0 +1,72 @@
+package com.stability.coareport.config;
+
+import com.stability.coareport.exception.StatementBudgetExceededException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #begin()} and
+ * {@link #end()}; {@link StatementBudgetFilter} opens such a scope per HTTP request. Statements on
+ * other threads (ingestion workers, schedulers) are not counted.
+ * <p>
+ * With {@code jpa.statement-budget.fail-on-exceed} the statement that goes over the budget throws,
+ * which makes N+1 regressions fail loudly in development; otherwise the filter only reports them.
+ * <p>
+ * Inspecting every statement costs on each query, so this is only active under the
+ * {@value #PROFILE} profile; the test suite checks statement counts with Hibernate statistics.
+ */
+@Component
+@Profile(StatementBudgetInspector.PROFILE)
+public class StatementBudgetInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    public static final String PROFILE = "statement-budget";
+
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    private final int maxStatements;
+    private final boolean failOnExceed;
+
+    public StatementBudgetInspector(@Value("${jpa.statement-budget.max-per-request:100}") int maxStatements,
+                                    @Value("${jpa.statement-budget.fail-on-exceed:false}") boolean failOnExceed) {
+        this.maxStatements = maxStatements;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = STATEMENTS.get();
+        if (count != null && ++count[0] > maxStatements && maxStatements > 0 && failOnExceed) {
+            throw new StatementBudgetExceededException("Request exceeded the budget of " + maxStatements
+                    + " SQL statements");
+        }
+        return sql;
+    }
+
+    public void begin() {
+        STATEMENTS.set(new int[1]);
+    }
+
+    /**
+     * Closes the current scope and returns the number of statements issued in it.
+     */
+    public int end() {
+        int[] count = STATEMENTS.get();
+        STATEMENTS.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+}
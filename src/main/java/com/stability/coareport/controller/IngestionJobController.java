@@ -0,0 +1,136 @@
+package com.stability.coareport.controller;
+
+import com.stability.coareport.dto.IngestionJobResponse;
+import com.stability.coareport.dto.ProductBasedUploadRequest;
+import com.stability.coareport.exception.BranchNotFoundException;
+import com.stability.coareport.exception.IngestionQueueFullException;
+import com.stability.coareport.security.UserDetailsImpl;
+import com.stability.coareport.service.IngestionJob;
+import com.stability.coareport.service.IngestionJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.BindException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/reports/jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class IngestionJobController {
+
+    private final IngestionJobService ingestionJobService;
+
+    @PostMapping("/preview")
+    @PreAuthorize("hasAnyRole('ADMIN', 'BRANCH_ADMIN', 'MANAGER', 'QC', 'QA')")
+    public ResponseEntity<?> submitPreview(
+            @RequestParam("file") MultipartFile file,
+            Authentication authentication
+    ) {
+        try {
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+            IngestionJob job = ingestionJobService.submitPreview(file, userDetails.getUsername());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toResponse());
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Error storing PDF: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/product-based-upload")
+    @PreAuthorize("hasAnyRole('ADMIN', 'BRANCH_ADMIN', 'MANAGER', 'QC', 'QA')")
+    public ResponseEntity<?> submitProductBasedUpload(
+            @RequestParam("file") MultipartFile file,
+            @Valid @ModelAttribute ProductBasedUploadRequest request,
+            Authentication authentication
+    ) {
+        try {
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+            IngestionJob job = ingestionJobService.submitProductBasedUpload(file, request, userDetails.getUsername());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toResponse());
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Error storing PDF: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'BRANCH_ADMIN', 'MANAGER', 'QC', 'QA')")
+    public ResponseEntity<IngestionJobResponse> getJobStatus(@PathVariable String jobId, Authentication authentication) {
+        return findVisibleJob(jobId, authentication)
+                .map(job -> ResponseEntity.ok(job.toResponse()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{jobId}/result")
+    @PreAuthorize("hasAnyRole('ADMIN', 'BRANCH_ADMIN', 'MANAGER', 'QC', 'QA')")
+    public ResponseEntity<?> getJobResult(@PathVariable String jobId, Authentication authentication) {
+        Optional<IngestionJob> found = findVisibleJob(jobId, authentication);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        IngestionJob job = found.get();
+        switch (job.getStatus()) {
+            case SUCCEEDED:
+                return ResponseEntity.ok(job.getResult());
+            case FAILED:
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", job.getErrorCode());
+                errorResponse.put("message", job.getErrorMessage());
+                if ("SCANNED_PDF_NOT_SUPPORTED".equals(job.getErrorCode())) {
+                    errorResponse.put("supported", false);
+                    errorResponse.put("suggestion", "Please convert your scanned PDF to a digitally generated PDF or use a tool that extracts text from the original document.");
+                    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
+                }
+                return ResponseEntity.badRequest().body(errorResponse);
+            default:
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toResponse());
+        }
+    }
+
+    private Optional<IngestionJob> findVisibleJob(String jobId, Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+        boolean isAdmin = userDetails.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+
+        return ingestionJobService.getJob(jobId)
+                .filter(job -> isAdmin || job.getSubmittedBy().equals(userDetails.getUsername()));
+    }
+
+    @ExceptionHandler(IngestionQueueFullException.class)
+    public ResponseEntity<?> handleQueueFull(IngestionQueueFullException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "INGESTION_QUEUE_FULL");
+        errorResponse.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(errorResponse);
+    }
+
+    // Rejected before the upload is streamed to disk
+    @ExceptionHandler(BindException.class)
+    public ResponseEntity<?> handleInvalidRequest(BindException ex) {
+        String message = ex.getFieldErrors().stream()
+                .map(error -> error.getField() + " " + error.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+        return ResponseEntity.badRequest().body("Error: " + message);
+    }
+
+    @ExceptionHandler(BranchNotFoundException.class)
+    public ResponseEntity<?> handleBranchNotFound(BranchNotFoundException ex) {
+        return ResponseEntity.badRequest().body("Error: " + ex.getMessage());
+    }
+}
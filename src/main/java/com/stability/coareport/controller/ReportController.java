@@ -1,6 +1,8 @@
 package com.stability.coareport.controller;
 
+import com.stability.coareport.dto.BulkUploadResponse;
 import com.stability.coareport.dto.PageResponse;
+import com.stability.coareport.dto.PdfIdentifyResponse;
 import com.stability.coareport.dto.ReportPreviewResponse;
 import com.stability.coareport.dto.ReportSubmitRequest;
 import com.stability.coareport.dto.UpdateFieldRequest;
@@ -8,6 +10,7 @@ import com.stability.coareport.entity.ChangeHistory;
 import com.stability.coareport.entity.Report;
 import com.stability.coareport.exception.ScannedPdfNotSupportedException;
 import com.stability.coareport.security.UserDetailsImpl;
+import com.stability.coareport.service.BulkIngestionService;
 import com.stability.coareport.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
@@ -33,6 +36,7 @@ import java.util.Map;
 public class ReportController {
 
     private final ReportService reportService;
+    private final BulkIngestionService bulkIngestionService;
 
     @PostMapping("/preview")
     @PreAuthorize("hasAnyRole('ADMIN', 'BRANCH_ADMIN', 'MANAGER', 'QC', 'QA')")
@@ -52,6 +56,14 @@ public class ReportController {
         }
     }
 
+    @GetMapping("/preview/{tempFileId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'BRANCH_ADMIN', 'MANAGER', 'QC', 'QA')")
+    public ResponseEntity<ReportPreviewResponse> getPreview(@PathVariable String tempFileId) {
+        return reportService.getPreview(tempFileId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/submit")
     @PreAuthorize("hasAnyRole('ADMIN', 'BRANCH_ADMIN', 'MANAGER', 'QC', 'QA')")
     public ResponseEntity<?> submitReport(
@@ -144,6 +156,47 @@ public class ReportController {
         }
     }
 
+    @PostMapping("/identify")
+    @PreAuthorize("hasAnyRole('ADMIN', 'BRANCH_ADMIN', 'MANAGER', 'QC', 'QA')")
+    public ResponseEntity<?> identifyPdf(
+            @RequestParam("file") MultipartFile file,
+            Authentication authentication
+    ) {
+        try {
+            PdfIdentifyResponse identity = reportService.identifyPdf(file);
+            return ResponseEntity.ok(identity);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Error processing PDF: " + e.getMessage());
+        } catch (ScannedPdfNotSupportedException e) {
+            throw e;
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/bulk-upload")
+    @PreAuthorize("hasAnyRole('ADMIN', 'BRANCH_ADMIN', 'MANAGER', 'QC', 'QA')")
+    public ResponseEntity<?> bulkUpload(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "branchId", required = false) Long branchId,
+            Authentication authentication
+    ) {
+        try {
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+            boolean isAdmin = userDetails.getAuthorities().stream()
+                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+            Long targetBranchId = isAdmin && branchId != null ? branchId : userDetails.getBranchId();
+
+            BulkUploadResponse response = bulkIngestionService.ingest(files, targetBranchId, userDetails.getUsername());
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Error reading upload: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'BRANCH_ADMIN', 'MANAGER', 'USER', 'QC', 'QA')")
     public ResponseEntity<PageResponse<Report>> getReports(
@@ -215,8 +268,15 @@ public class ReportController {
 
     @GetMapping("/history/by-product")
     @PreAuthorize("hasAnyRole('ADMIN', 'BRANCH_ADMIN', 'MANAGER', 'QC', 'QA')")
-    public ResponseEntity<?> getChangeHistoryByProduct(@RequestParam String productName) {
+    public ResponseEntity<?> getChangeHistoryByProduct(
+            @RequestParam String productName,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
         try {
+            if (page != null) {
+                return ResponseEntity.ok(reportService.getChangeHistoryByProduct(productName, page, size));
+            }
             var history = reportService.getChangeHistoryByProduct(productName);
             return ResponseEntity.ok(history);
         } catch (Exception e) {
@@ -25,6 +25,36 @@ public class ApprovalTrackingResponse {
     public ApprovalTrackingResponse() {
     }
 
+    /**
+     * Constructor for the JPQL/Criteria DTO projection in {@code ReportRepositoryCustomImpl};
+     * argument order is the field order above.
+     */
+    public ApprovalTrackingResponse(Long id, String productName, String productCode, String batchNo,
+                                    String specification, String storageCondition, String uploadedBy,
+                                    LocalDateTime uploadedAt, String approvedBy, LocalDateTime approvedAt,
+                                    String approvalStatus, String rejectionReason, String pdfFileName,
+                                    String pdfFilePath, String market, String sampleOrientation,
+                                    String packSize, String sampleQty) {
+        this.id = id;
+        this.productName = productName;
+        this.productCode = productCode;
+        this.batchNo = batchNo;
+        this.specification = specification;
+        this.storageCondition = storageCondition;
+        this.uploadedBy = uploadedBy;
+        this.uploadedAt = uploadedAt;
+        this.approvedBy = approvedBy;
+        this.approvedAt = approvedAt;
+        this.approvalStatus = approvalStatus;
+        this.rejectionReason = rejectionReason;
+        this.pdfFileName = pdfFileName;
+        this.pdfFilePath = pdfFilePath;
+        this.market = market;
+        this.sampleOrientation = sampleOrientation;
+        this.packSize = packSize;
+        this.sampleQty = sampleQty;
+    }
+
     public Long getId() {
         return id;
     }
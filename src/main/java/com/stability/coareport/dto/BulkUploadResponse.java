@@ -0,0 +1,35 @@
+package com.stability.coareport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUploadResponse {
+    private int totalFiles;
+    private int succeeded;
+    private int scannedRejected;
+    private int failed;
+    private long durationMs;
+    private List<FileResult> files = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FileResult {
+        public static final String SUCCESS = "SUCCESS";
+        public static final String SCANNED_REJECTED = "SCANNED_REJECTED";
+        public static final String FAILED = "FAILED";
+
+        private String fileName;
+        private String status;
+        private Long reportId;
+        private Integer testResultCount;
+        private String message;
+    }
+}
@@ -0,0 +1,34 @@
+package com.stability.coareport.dto;
+
+/**
+ * The CoA header fields a report is created from, whether parsed from the PDF
+ * ({@link ParsedPdfData}) or reviewed and submitted by the user ({@link ReportSubmitRequest}).
+ */
+public interface CoaHeaderFields {
+    String getProductName();
+    String getProductCode();
+    String getArNo();
+    String getBatchNo();
+    String getBatchSize();
+    String getMfgDate();
+    String getExpDate();
+    String getSpecification();
+    String getStorageCondition();
+    String getSampleQty();
+    String getReceivedDate();
+    String getAnalysisStartDate();
+    String getAnalysisEndDate();
+    String getProtocolId();
+    String getStpNo();
+    String getSchedulePeriod();
+    String getPackingType();
+    String getPackSize();
+    String getRemarks();
+    String getCheckedBy();
+    String getApprovedBy();
+    String getCheckDate();
+    String getApprovalDate();
+    String getHdpeCapDepth();
+    String getLdpeNozzleDetails();
+    String getLdpeBottleDetails();
+}
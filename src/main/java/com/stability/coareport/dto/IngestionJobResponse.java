@@ -0,0 +1,37 @@
+package com.stability.coareport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionJobResponse {
+    private String jobId;
+    private String type;
+    private String status;
+    private String fileName;
+    private String submittedBy;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String currentStage;
+    private Integer pagesStripped;
+    private Integer totalPages;
+    private List<StageProgress> stages;
+    private String errorCode;
+    private String errorMessage;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StageProgress {
+        private String stage;
+        private String status;
+        private Long durationMs;
+    }
+}
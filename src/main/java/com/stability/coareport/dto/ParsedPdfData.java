@@ -9,7 +9,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class ParsedPdfData {
+public class ParsedPdfData implements CoaHeaderFields {
     private String productName;
     private String productCode;
     private String arNo;
@@ -0,0 +1,24 @@
+package com.stability.coareport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfIdentifyResponse {
+    private String fileName;
+    private String contentHash;
+    private String productName;
+    private String productCode;
+    private String batchNo;
+    private String arNo;
+    private String specification;
+    private String storageCondition;
+    private String schedulePeriod;
+    private String protocolId;
+    private List<Long> existingReportIds;
+}
@@ -0,0 +1,31 @@
+package com.stability.coareport.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBasedUploadRequest {
+    // Product, batch and storage condition also name the upload folder
+    @NotBlank
+    private String productName;
+    private String productCode;
+    @NotBlank
+    private String batchNo;
+    private String arNo;
+    private String specificationId;
+    private String batchSize;
+    @NotBlank
+    private String storageCondition;
+    private String sampleOrientation;
+    @NotBlank
+    private String schedulePeriod;
+    @NotNull
+    private Long companyId;
+    @NotNull
+    private Long branchId;
+}
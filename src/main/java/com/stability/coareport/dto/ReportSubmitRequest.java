@@ -9,7 +9,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class ReportSubmitRequest {
+public class ReportSubmitRequest implements CoaHeaderFields {
     private String tempFileId;
     private Long branchId;
     private String pdfFileName;
@@ -0,0 +1,18 @@
+package com.stability.coareport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/**
+ * An uploaded PDF that has already been streamed to disk, so it can be processed after the
+ * request that carried it has completed.
+ */
+@Data
+@AllArgsConstructor
+public class StagedUpload {
+    private Path path;
+    private String originalFilename;
+    private String contentHash;
+}
@@ -13,7 +13,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "change_history")
+@Table(name = "change_history", indexes = {
+        @Index(name = "idx_change_history_entity", columnList = "entity_type, entity_id, modified_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
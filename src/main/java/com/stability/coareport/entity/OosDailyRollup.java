@@ -0,0 +1,44 @@
+package com.stability.coareport.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Test result counts per product, test and report creation day, for the OOS Pareto. Kept current
+ * by {@code OosRollupService} as reports are saved and OOS statuses change.
+ */
+@Entity
+@Table(name = "oos_daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_oos_daily_rollups", columnNames = {"product_name", "rollup_date", "test_name"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class OosDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+
+    @Column(name = "test_name", nullable = false, length = 500)
+    private String testName;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(name = "total_count", nullable = false)
+    private Integer totalCount;
+
+    @Column(name = "oos_count", nullable = false)
+    private Integer oosCount;
+
+    @Column(name = "oos_justified_count", nullable = false)
+    private Integer oosJustifiedCount;
+}
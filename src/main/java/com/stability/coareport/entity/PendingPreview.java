@@ -0,0 +1,46 @@
+package com.stability.coareport.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A parsed preview awaiting submit, shared between nodes when {@code preview.store.type=database}.
+ * The parsed data is stored as gzipped JSON, the staged PDF as-is (it is compressed already).
+ * Rows are written and the PDF read through JDBC streams by {@code DatabasePreviewStore}; the
+ * mapping defines the table and serves the projections of {@code PendingPreviewRepository}.
+ */
+@Entity
+@Table(name = "pending_previews", indexes = {
+        @Index(name = "idx_pending_previews_last_access", columnList = "last_access_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class PendingPreview {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "pdf_path", nullable = false, length = 1024)
+    private String pdfPath;
+
+    @Column(name = "pdf_content", nullable = false, columnDefinition = "BYTEA")
+    private byte[] pdfContent;
+
+    @Column(name = "data_gzip", nullable = false, columnDefinition = "BYTEA")
+    private byte[] dataGzip;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_access_at", nullable = false)
+    private LocalDateTime lastAccessAt;
+}
@@ -0,0 +1,45 @@
+package com.stability.coareport.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per product (name + code) across all branches: report count and the batch and received
+ * date of the latest report. Rebuilt periodically from {@code reports} when
+ * {@code products.summary.materialized=true}; see {@code ProductSummaryService}.
+ */
+@Entity
+@Table(name = "product_summaries", indexes = {
+        @Index(name = "idx_product_summaries_product", columnList = "product_name, product_code")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(name = "product_code")
+    private String productCode;
+
+    @Column(name = "total_reports", nullable = false)
+    private Long totalReports;
+
+    @Column(name = "latest_batch_no")
+    private String latestBatchNo;
+
+    @Column(name = "latest_received_date")
+    private String latestReceivedDate;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
@@ -2,6 +2,8 @@ package com.stability.coareport.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.stability.coareport.util.DateNormalizer;
+import com.stability.coareport.util.SchedulePeriods;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -12,21 +14,40 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "reports")
+@Table(name = "reports", indexes = {
+        @Index(name = "idx_reports_mfg_date_value", columnList = "mfg_date_value"),
+        @Index(name = "idx_reports_exp_date_value", columnList = "exp_date_value"),
+        @Index(name = "idx_reports_received_date_value", columnList = "received_date_value"),
+        @Index(name = "idx_reports_product_batch", columnList = "product_name, batch_no"),
+        @Index(name = "idx_reports_approval_status", columnList = "approval_status, id"),
+        // Covering indexes for the product summaries (ReportRepository.summarizeProducts*)
+        @Index(name = "idx_reports_product_summary",
+                columnList = "product_name, product_code, created_at, id, batch_no, received_date"),
+        @Index(name = "idx_reports_branch_product_summary",
+                columnList = "branch_id, product_name, product_code, created_at, id, batch_no, received_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@NamedEntityGraph(name = Report.WITH_TEST_RESULTS, attributeNodes = @NamedAttributeNode("testResults"))
 public class Report {
 
+    /** Fetch plan for analytics that read every report's test results. */
+    public static final String WITH_TEST_RESULTS = "Report.testResults";
+
+    // Pooled sequence rather than IDENTITY so inserts can be JDBC-batched; see IdSequenceAligner
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reports_id_generator")
+    @SequenceGenerator(name = "reports_id_generator", sequenceName = "reports_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "product_name")
@@ -68,6 +89,23 @@ public class Report {
     @Column(name = "analysis_end_date")
     private String analysisEndDate;
 
+    // Normalized copies of the date strings above (null when unparseable), kept in sync on save so
+    // date filters and sorting can run in the database
+    @Column(name = "mfg_date_value")
+    private LocalDate mfgDateValue;
+
+    @Column(name = "exp_date_value")
+    private LocalDate expDateValue;
+
+    @Column(name = "received_date_value")
+    private LocalDate receivedDateValue;
+
+    @Column(name = "analysis_start_date_value")
+    private LocalDate analysisStartDateValue;
+
+    @Column(name = "analysis_end_date_value")
+    private LocalDate analysisEndDateValue;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "branch_id", nullable = false)
     @JsonIgnore
@@ -88,6 +126,10 @@ public class Report {
     @Column(name = "schedule_period")
     private String schedulePeriod;
 
+    // SchedulePeriods.rank(schedulePeriod), kept in sync on save for period ordering and cutoffs in SQL
+    @Column(name = "schedule_period_rank")
+    private Integer schedulePeriodRank;
+
     @Column(name = "packing_type")
     private String packingType;
 
@@ -129,7 +171,9 @@ public class Report {
 
     @OneToMany(mappedBy = "report", cascade = CascadeType.ALL, orphanRemoval = true)
     @com.fasterxml.jackson.annotation.JsonManagedReference
-    private List<TestResult> testResults;
+    // Add to this list rather than replacing it: swapping the collection of a managed report makes
+    // Hibernate rewrite the whole reports row at flush
+    private List<TestResult> testResults = new ArrayList<>();
 
     @CreatedBy
     @Column(name = "created_by")
@@ -156,4 +200,15 @@ public class Report {
 
     @Column(name = "rejection_reason")
     private String rejectionReason;
+
+    @PrePersist
+    @PreUpdate
+    public void deriveColumns() {
+        schedulePeriodRank = SchedulePeriods.rank(schedulePeriod);
+        mfgDateValue = DateNormalizer.parse(mfgDate);
+        expDateValue = DateNormalizer.parseExpiry(expDate);
+        receivedDateValue = DateNormalizer.parse(receivedDate);
+        analysisStartDateValue = DateNormalizer.parse(analysisStartDate);
+        analysisEndDateValue = DateNormalizer.parse(analysisEndDate);
+    }
 }
@@ -2,6 +2,7 @@ package com.stability.coareport.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.stability.coareport.util.ResultValues;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -24,8 +25,10 @@ import java.time.LocalDateTime;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class TestResult {
 
+    // Pooled sequence rather than IDENTITY so inserts can be JDBC-batched; see IdSequenceAligner
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "test_results_id_generator")
+    @SequenceGenerator(name = "test_results_id_generator", sequenceName = "test_results_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,6 +45,13 @@ public class TestResult {
     @Column(length = 1000)
     private String result;
 
+    // Parsed form of result (see ResultValues), kept in sync on save so analytics need not parse it
+    @Column(name = "result_value", columnDefinition = "NUMERIC")
+    private BigDecimal resultValue;
+
+    @Column(name = "result_qualifier", length = 16)
+    private String resultQualifier;
+
     @Column(length = 1000)
     private String specification;
 
@@ -90,4 +100,18 @@ public class TestResult {
 
     @LastModifiedDate
     private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void deriveColumns() {
+        resultValue = ResultValues.value(result);
+        resultQualifier = ResultValues.qualifier(result);
+    }
+
+    /**
+     * The numeric value of the result, or {@code null} when it has none.
+     */
+    public BigDecimal numericResult() {
+        return ResultValues.valueOf(result, resultValue, resultQualifier);
+    }
 }
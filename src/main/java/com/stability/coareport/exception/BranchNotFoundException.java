@@ -0,0 +1,8 @@
+package com.stability.coareport.exception;
+
+public class BranchNotFoundException extends RuntimeException {
+
+    public BranchNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.stability.coareport.exception;
+
+public class IngestionQueueFullException extends RuntimeException {
+
+    public IngestionQueueFullException(String message) {
+        super(message);
+    }
+
+    public IngestionQueueFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,24 @@
+package com.stability.coareport.exception;
+
+/**
+ * Thrown when parsing a document exceeds its time or memory budget. Deliberately has no
+ * {@code (Throwable)} constructor, so fork/join rethrows this instance rather than a copy.
+ */
+public class PdfParseAbortedException extends RuntimeException {
+
+    public enum Reason {
+        TIMEOUT,
+        MEMORY
+    }
+
+    private final Reason reason;
+
+    public PdfParseAbortedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
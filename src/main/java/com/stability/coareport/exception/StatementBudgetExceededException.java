@@ -0,0 +1,12 @@
+package com.stability.coareport.exception;
+
+/**
+ * Thrown when a request issues more SQL statements than {@code jpa.statement-budget.max-per-request}
+ * and {@code jpa.statement-budget.fail-on-exceed} is on, typically because of an N+1 load.
+ */
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -12,4 +12,5 @@ public interface BranchRepository extends JpaRepository<Branch, Long> {
     List<Branch> findByCompanyIdAndActiveTrue(Long companyId);
     List<Branch> findByActiveTrue();
     Optional<Branch> findByName(String name);
+    Optional<Branch> findFirstByCodeIgnoreCase(String code);
 }
@@ -1,9 +1,12 @@
 package com.stability.coareport.repository;
 
+import com.stability.coareport.dto.ChangeHistoryResponse;
 import com.stability.coareport.entity.ChangeHistory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +16,29 @@ public interface ChangeHistoryRepository extends JpaRepository<ChangeHistory, Lo
     List<ChangeHistory> findByEntityTypeAndEntityIdOrderByModifiedAtDesc(String entityType, Long entityId);
 
     Page<ChangeHistory> findByEntityTypeAndEntityIdOrderByModifiedAtDesc(String entityType, Long entityId, Pageable pageable);
+
+    // History of a product's reports and their test results; product and batch come from whichever
+    // of the two the entry belongs to
+    String PRODUCT_TIMELINE_FROM =
+            "FROM ChangeHistory h " +
+            "LEFT JOIN Report r ON h.entityType = 'Report' AND r.id = h.entityId " +
+            "LEFT JOIN TestResult t ON h.entityType = 'TestResult' AND t.id = h.entityId " +
+            "LEFT JOIN t.report tr " +
+            "WHERE (h.entityType = 'Report' AND h.entityId IN " +
+            "(SELECT pr.id FROM Report pr WHERE pr.productName = :productName)) " +
+            "OR (h.entityType = 'TestResult' AND h.entityId IN " +
+            "(SELECT pt.id FROM TestResult pt WHERE pt.report.productName = :productName))";
+
+    String PRODUCT_TIMELINE_SELECT =
+            "SELECT new com.stability.coareport.dto.ChangeHistoryResponse(" +
+            "h.id, h.entityType, h.entityId, h.fieldName, h.oldValue, h.newValue, h.action, h.modifiedBy, " +
+            "h.modifiedAt, COALESCE(r.productName, tr.productName), COALESCE(r.batchNo, tr.batchNo), " +
+            "h.remarks, h.evidenceDocumentName, h.evidenceDocumentPath) " + PRODUCT_TIMELINE_FROM;
+
+    @Query(PRODUCT_TIMELINE_SELECT + " ORDER BY h.modifiedAt DESC, h.id DESC")
+    List<ChangeHistoryResponse> findTimelineByProductName(@Param("productName") String productName);
+
+    @Query(value = PRODUCT_TIMELINE_SELECT + " ORDER BY h.modifiedAt DESC, h.id DESC",
+           countQuery = "SELECT COUNT(h) " + PRODUCT_TIMELINE_FROM)
+    Page<ChangeHistoryResponse> findTimelineByProductName(@Param("productName") String productName, Pageable pageable);
 }
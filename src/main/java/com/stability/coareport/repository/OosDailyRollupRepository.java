@@ -0,0 +1,30 @@
+package com.stability.coareport.repository;
+
+import com.stability.coareport.entity.OosDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OosDailyRollupRepository extends JpaRepository<OosDailyRollup, Long> {
+
+    interface ParetoRow {
+        String getTestName();
+
+        Long getTotalCount();
+
+        Long getOosCount();
+    }
+
+    // OOS and OOS_JUSTIFIED both count as OOS; tests without any are left out
+    @Query("SELECT o.testName AS testName, SUM(o.totalCount) AS totalCount, " +
+           "SUM(o.oosCount + o.oosJustifiedCount) AS oosCount " +
+           "FROM OosDailyRollup o WHERE o.productName = :productName AND o.rollupDate >= :from " +
+           "GROUP BY o.testName HAVING SUM(o.oosCount + o.oosJustifiedCount) > 0 " +
+           "ORDER BY SUM(o.oosCount + o.oosJustifiedCount) DESC, o.testName ASC")
+    List<ParetoRow> sumOosByTest(@Param("productName") String productName, @Param("from") LocalDate from);
+}
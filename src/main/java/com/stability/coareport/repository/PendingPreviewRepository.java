@@ -0,0 +1,45 @@
+package com.stability.coareport.repository;
+
+import com.stability.coareport.entity.PendingPreview;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface PendingPreviewRepository extends JpaRepository<PendingPreview, String> {
+
+    /**
+     * Everything but the PDF bytes, which are only needed when a node has to restore the file.
+     */
+    interface PreviewData {
+        String getFileName();
+
+        String getPdfPath();
+
+        byte[] getDataGzip();
+    }
+
+    @Query("SELECT p.fileName AS fileName, p.pdfPath AS pdfPath, p.dataGzip AS dataGzip FROM PendingPreview p WHERE p.id = :id")
+    Optional<PreviewData> findPreviewDataById(@Param("id") String id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PendingPreview p SET p.lastAccessAt = :now WHERE p.id = :id")
+    int touch(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PendingPreview p WHERE p.id = :id")
+    int deletePreview(@Param("id") String id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PendingPreview p WHERE p.lastAccessAt < :cutoff")
+    int deleteIdleSince(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,13 @@
+package com.stability.coareport.repository;
+
+import com.stability.coareport.entity.ProductSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductSummaryRepository extends JpaRepository<ProductSummary, Long> {
+
+    List<ProductSummary> findAllByOrderByProductNameAscProductCodeAsc();
+}
@@ -3,14 +3,23 @@ package com.stability.coareport.repository;
 import com.stability.coareport.entity.Report;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @Repository
-public interface ReportRepository extends JpaRepository<Report, Long> {
+public interface ReportRepository extends JpaRepository<Report, Long>, JpaSpecificationExecutor<Report>,
+        ReportRepositoryCustom {
     List<Report> findByBranchId(Long branchId);
 
     Page<Report> findByBranchId(Long branchId, Pageable pageable);
@@ -21,6 +30,24 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     @Query("SELECT DISTINCT r.productName FROM Report r")
     List<String> findDistinctProductNames();
 
+    @Query("SELECT DISTINCT r.specification FROM Report r WHERE r.specification IS NOT NULL")
+    List<String> findDistinctSpecifications();
+
+    @Query("SELECT DISTINCT r.batchNo FROM Report r WHERE r.batchNo IS NOT NULL")
+    List<String> findDistinctBatchNumbers();
+
+    @Query("SELECT DISTINCT r.storageCondition FROM Report r WHERE r.storageCondition IS NOT NULL")
+    List<String> findDistinctStorageConditions();
+
+    @Query("SELECT DISTINCT r.sampleOrientation FROM Report r WHERE r.sampleOrientation IS NOT NULL")
+    List<String> findDistinctSampleOrientations();
+
+    @Query("SELECT DISTINCT r.description FROM Report r WHERE r.description IS NOT NULL")
+    List<String> findDistinctDescriptions();
+
+    @Query("SELECT DISTINCT r.schedulePeriod FROM Report r WHERE r.schedulePeriod IS NOT NULL")
+    List<String> findDistinctSchedulePeriods();
+
     List<Report> findByProductName(String productName);
 
     @Query("SELECT DISTINCT r.batchNo FROM Report r WHERE r.productName = :productName")
@@ -35,6 +62,22 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
 
     List<Report> findByProductNameOrderByCreatedAtAsc(String productName);
 
+    // Variants that load the test results in the same query, for code that walks every report's results
+
+    @EntityGraph(Report.WITH_TEST_RESULTS)
+    List<Report> findWithTestResultsByProductNameOrderByCreatedAtAsc(String productName);
+
+    @EntityGraph(Report.WITH_TEST_RESULTS)
+    List<Report> findWithTestResultsByProductNameAndStorageCondition(String productName, String storageCondition);
+
+    /**
+     * Filtered reports with their test results (see {@link ReportSpecifications}); only the
+     * stability reports use specification queries, and they always need the results.
+     */
+    @Override
+    @EntityGraph(Report.WITH_TEST_RESULTS)
+    List<Report> findAll(Specification<Report> spec, Sort sort);
+
     List<Report> findByApprovalStatus(String approvalStatus);
 
     List<Report> findByProductNameAndSpecificationAndStorageCondition(String productName, String specification, String storageCondition);
@@ -57,7 +100,111 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     @Query("SELECT DISTINCT r.schedulePeriod FROM Report r WHERE r.productName = :productName AND r.schedulePeriod IS NOT NULL")
     List<String> findDistinctStationsByProductName(String productName);
 
+    @Query("SELECT DISTINCT r.description FROM Report r WHERE r.productName = :productName AND r.description IS NOT NULL")
+    List<String> findDistinctDescriptionsByProductName(String productName);
+
     List<Report> findByProductNameAndBatchNoAndStorageCondition(String productName, String batchNo, String storageCondition);
 
     List<Report> findByProductNameAndBatchNo(String productName, String batchNo);
+
+    interface TrendPoint {
+        Long getReportId();
+
+        String getStorageCondition();
+
+        String getSchedulePeriod();
+
+        Integer getSchedulePeriodRank();
+
+        String getTest();
+
+        String getResult();
+
+        BigDecimal getResultValue();
+
+        String getResultQualifier();
+
+        String getOotStatus();
+    }
+
+    // Every test result of one batch in schedule order; reports without results give one row with
+    // null test fields. Reports not backfilled yet have a null rank and come last.
+    @Query("SELECT r.id AS reportId, r.storageCondition AS storageCondition, r.schedulePeriod AS schedulePeriod, " +
+           "r.schedulePeriodRank AS schedulePeriodRank, " +
+           "tr.test AS test, tr.result AS result, tr.resultValue AS resultValue, " +
+           "tr.resultQualifier AS resultQualifier, tr.ootStatus AS ootStatus " +
+           "FROM Report r LEFT JOIN r.testResults tr " +
+           "WHERE r.productName = :productName AND r.batchNo = :batchNo " +
+           "ORDER BY r.schedulePeriodRank ASC NULLS LAST, r.id ASC, tr.id ASC")
+    List<TrendPoint> findTrendPointsByProductNameAndBatchNo(@Param("productName") String productName,
+                                                            @Param("batchNo") String batchNo);
+
+    interface ProductSummaryView {
+        String getProductName();
+
+        String getProductCode();
+
+        Long getTotalReports();
+
+        String getLatestBatchNo();
+
+        String getLatestReceivedDate();
+    }
+
+    // Per product (name + code): report count plus batch and received date of the most recently
+    // created report. Served from idx_reports_product_summary / idx_reports_branch_product_summary.
+    @Query(value = "SELECT product_name AS productName, product_code AS productCode, total_reports AS totalReports, " +
+                   "batch_no AS latestBatchNo, received_date AS latestReceivedDate FROM (" +
+                   "SELECT r.product_name, r.product_code, r.batch_no, r.received_date, " +
+                   "COUNT(*) OVER (PARTITION BY r.product_name, r.product_code) AS total_reports, " +
+                   "ROW_NUMBER() OVER (PARTITION BY r.product_name, r.product_code " +
+                   "ORDER BY r.created_at DESC NULLS LAST, r.id DESC) AS rn FROM reports r) t " +
+                   "WHERE rn = 1 ORDER BY product_name, product_code", nativeQuery = true)
+    List<ProductSummaryView> summarizeProducts();
+
+    @Query(value = "SELECT product_name AS productName, product_code AS productCode, total_reports AS totalReports, " +
+                   "batch_no AS latestBatchNo, received_date AS latestReceivedDate FROM (" +
+                   "SELECT r.product_name, r.product_code, r.batch_no, r.received_date, " +
+                   "COUNT(*) OVER (PARTITION BY r.product_name, r.product_code) AS total_reports, " +
+                   "ROW_NUMBER() OVER (PARTITION BY r.product_name, r.product_code " +
+                   "ORDER BY r.created_at DESC NULLS LAST, r.id DESC) AS rn FROM reports r " +
+                   "WHERE r.branch_id = :branchId) t " +
+                   "WHERE rn = 1 ORDER BY product_name, product_code", nativeQuery = true)
+    List<ProductSummaryView> summarizeProductsByBranchId(@Param("branchId") Long branchId);
+
+    interface RawColumns {
+        Long getId();
+
+        String getMfgDate();
+
+        String getExpDate();
+
+        String getReceivedDate();
+
+        String getAnalysisStartDate();
+
+        String getAnalysisEndDate();
+
+        String getSchedulePeriod();
+    }
+
+    @Query("SELECT r.id AS id, r.mfgDate AS mfgDate, r.expDate AS expDate, r.receivedDate AS receivedDate, " +
+           "r.analysisStartDate AS analysisStartDate, r.analysisEndDate AS analysisEndDate, " +
+           "r.schedulePeriod AS schedulePeriod FROM Report r " +
+           "WHERE r.id > :afterId AND (r.schedulePeriodRank IS NULL " +
+           "OR (r.mfgDate IS NOT NULL AND r.mfgDateValue IS NULL) " +
+           "OR (r.expDate IS NOT NULL AND r.expDateValue IS NULL) " +
+           "OR (r.receivedDate IS NOT NULL AND r.receivedDateValue IS NULL) " +
+           "OR (r.analysisStartDate IS NOT NULL AND r.analysisStartDateValue IS NULL) " +
+           "OR (r.analysisEndDate IS NOT NULL AND r.analysisEndDateValue IS NULL)) ORDER BY r.id")
+    List<RawColumns> findUnderivedColumnsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Bulk update: bypasses entity listeners, so backfilling does not touch updatedAt
+    @Modifying
+    @Query("UPDATE Report r SET r.mfgDateValue = :mfg, r.expDateValue = :exp, r.receivedDateValue = :received, " +
+           "r.analysisStartDateValue = :analysisStart, r.analysisEndDateValue = :analysisEnd, " +
+           "r.schedulePeriodRank = :periodRank WHERE r.id = :id")
+    int updateDerivedColumns(@Param("id") Long id, @Param("mfg") LocalDate mfg, @Param("exp") LocalDate exp,
+                             @Param("received") LocalDate received, @Param("analysisStart") LocalDate analysisStart,
+                             @Param("analysisEnd") LocalDate analysisEnd, @Param("periodRank") Integer periodRank);
 }
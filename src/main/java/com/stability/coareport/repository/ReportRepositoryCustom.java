@@ -0,0 +1,19 @@
+package com.stability.coareport.repository;
+
+import com.stability.coareport.dto.ApprovalTrackingResponse;
+import com.stability.coareport.entity.Report;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Report queries that need the Criteria API directly, implemented in {@link ReportRepositoryCustomImpl}.
+ */
+public interface ReportRepositoryCustom {
+
+    /**
+     * One page of approval tracking rows, selected straight into the DTO so no {@link Report}
+     * entities are loaded. Filtering, sorting and paging all happen in SQL.
+     */
+    Page<ApprovalTrackingResponse> findApprovalTracking(Specification<Report> spec, Pageable pageable);
+}
@@ -0,0 +1,70 @@
+package com.stability.coareport.repository;
+
+import com.stability.coareport.dto.ApprovalTrackingResponse;
+import com.stability.coareport.entity.Report;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class ReportRepositoryCustomImpl implements ReportRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ApprovalTrackingResponse> findApprovalTracking(Specification<Report> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ApprovalTrackingResponse> query = cb.createQuery(ApprovalTrackingResponse.class);
+        Root<Report> root = query.from(Report.class);
+        query.select(cb.construct(ApprovalTrackingResponse.class,
+                root.get("id"), root.get("productName"), root.get("productCode"), root.get("batchNo"),
+                root.get("specification"), root.get("storageCondition"), root.get("uploadedBy"),
+                root.get("uploadedAt"), root.get("approvedBy"), root.get("approvedAt"),
+                root.get("approvalStatus"), root.get("rejectionReason"), root.get("pdfFileName"),
+                root.get("pdfFilePath"), root.get("market"), root.get("sampleOrientation"),
+                root.get("packSize"), root.get("sampleQty")));
+        Predicate where = toPredicate(spec, root, query, cb);
+        if (where != null) {
+            query.where(where);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<ApprovalTrackingResponse> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<ApprovalTrackingResponse> content = typedQuery.getResultList();
+
+        // Skips the count query when the page itself shows the total (first or last page)
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Report> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Report> root = query.from(Report.class);
+        query.select(cb.count(root));
+        Predicate where = toPredicate(spec, root, query, cb);
+        if (where != null) {
+            query.where(where);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate toPredicate(Specification<Report> spec, Root<Report> root, CriteriaQuery<?> query,
+                                         CriteriaBuilder cb) {
+        return spec != null ? spec.toPredicate(root, query, cb) : null;
+    }
+}
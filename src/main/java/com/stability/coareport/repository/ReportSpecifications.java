@@ -0,0 +1,51 @@
+package com.stability.coareport.repository;
+
+import com.stability.coareport.entity.Report;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Predicates for {@link ReportRepository#findAll(Specification, org.springframework.data.domain.Sort)}.
+ * A {@code null} value means "no filter", so callers can combine them unconditionally.
+ */
+public final class ReportSpecifications {
+
+    private ReportSpecifications() {
+    }
+
+    /**
+     * {@code attribute = value}, or no filter when the value is null.
+     */
+    public static Specification<Report> equalTo(String attribute, String value) {
+        if (value == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    /**
+     * {@code attribute = value}, or no filter when the value is null or empty.
+     */
+    public static Specification<Report> hasValue(String attribute, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    public static Specification<Report> batchNoIn(Collection<String> batchNumbers) {
+        return (root, query, cb) -> root.get("batchNo").in(batchNumbers);
+    }
+
+    /**
+     * Reports whose schedule period ranks at or below {@code rank}, i.e. from "Initial" up to and
+     * including that period, plus reports whose rank has not been backfilled yet. Callers check
+     * those against {@code SchedulePeriods.rank(String)} of their period.
+     */
+    public static Specification<Report> schedulePeriodRankAtMost(int rank) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThanOrEqualTo(root.get("schedulePeriodRank"), rank),
+                cb.isNull(root.get("schedulePeriodRank")));
+    }
+}
@@ -1,14 +1,25 @@
 package com.stability.coareport.repository;
 
 import com.stability.coareport.entity.TestResult;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
 public interface TestResultRepository extends JpaRepository<TestResult, Long> {
+
+    interface RawResult {
+        Long getId();
+
+        String getResult();
+    }
+
     List<TestResult> findByReportId(Long reportId);
 
     @Query("SELECT tr FROM TestResult tr WHERE tr.report.id = :reportId AND LOWER(tr.test) LIKE LOWER(CONCAT('%', :testName, '%'))")
@@ -19,4 +30,14 @@ public interface TestResultRepository extends JpaRepository<TestResult, Long> {
 
     @Query("SELECT DISTINCT tr.specification FROM TestResult tr JOIN tr.report r WHERE r.productName = :productName AND tr.specification IS NOT NULL")
     List<String> findDistinctSpecificationsByProductName(String productName);
+
+    @Query("SELECT tr.id AS id, tr.result AS result FROM TestResult tr " +
+           "WHERE tr.id > :afterId AND tr.resultQualifier IS NULL ORDER BY tr.id")
+    List<RawResult> findUnderivedResultsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Bulk update: bypasses entity listeners, so backfilling does not touch updatedAt
+    @Modifying
+    @Query("UPDATE TestResult tr SET tr.resultValue = :value, tr.resultQualifier = :qualifier WHERE tr.id = :id")
+    int updateResultColumns(@Param("id") Long id, @Param("value") BigDecimal value,
+                            @Param("qualifier") String qualifier);
 }
@@ -9,13 +9,15 @@ import com.stability.coareport.entity.User;
 import com.stability.coareport.repository.ChangeHistoryRepository;
 import com.stability.coareport.repository.ReportCommentRepository;
 import com.stability.coareport.repository.ReportRepository;
+import com.stability.coareport.repository.ReportSpecifications;
 import com.stability.coareport.repository.UserRepository;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -101,18 +103,9 @@ public class ApprovalService {
     public List<ApprovalTrackingResponse> getApprovalTracking(
             String productName, String batchNo, String specification,
             String storageCondition, String market, String orientation, String pack) {
-        List<Report> reports = reportRepository.findAll();
-
-        return reports.stream()
-                .filter(report -> productName == null || productName.isEmpty() || productName.equals(report.getProductName()))
-                .filter(report -> batchNo == null || batchNo.isEmpty() || batchNo.equals(report.getBatchNo()))
-                .filter(report -> specification == null || specification.isEmpty() || specification.equals(report.getSpecification()))
-                .filter(report -> storageCondition == null || storageCondition.isEmpty() || storageCondition.equals(report.getStorageCondition()))
-                .filter(report -> market == null || market.isEmpty() || market.equals(report.getMarket()))
-                .filter(report -> orientation == null || orientation.isEmpty() || orientation.equals(report.getSampleOrientation()))
-                .filter(report -> pack == null || pack.isEmpty() || pack.equals(report.getPackSize()))
-                .map(this::convertToApprovalTrackingResponse)
-                .collect(Collectors.toList());
+        return reportRepository.findApprovalTracking(
+                trackingFilter(productName, batchNo, specification, storageCondition, market, orientation, pack),
+                Pageable.unpaged(Sort.by("id"))).getContent();
     }
 
     @Transactional(readOnly = true)
@@ -129,48 +122,44 @@ public class ApprovalService {
             String productName, String batchNo, String specification,
             String storageCondition, String market, String orientation, String pack) {
 
-        List<ApprovalTrackingResponse> allTracking = getApprovalTracking(
-                productName, batchNo, specification, storageCondition, market, orientation, pack);
-
-        int start = page * size;
-        int end = Math.min(start + size, allTracking.size());
-
-        if (start >= allTracking.size()) {
-            return new PageResponse<>(List.of(), page, size, allTracking.size(),
-                    (int) Math.ceil((double) allTracking.size() / size), true, true);
-        }
-
-        List<ApprovalTrackingResponse> pageContent = allTracking.subList(start, end);
-        return new PageResponse<>(pageContent, page, size, allTracking.size(),
-                (int) Math.ceil((double) allTracking.size() / size),
-                page == 0,
-                end >= allTracking.size());
+        Page<ApprovalTrackingResponse> trackingPage = reportRepository.findApprovalTracking(
+                trackingFilter(productName, batchNo, specification, storageCondition, market, orientation, pack),
+                pageRequest(page, size, sortBy, sortDirection));
+        return PageResponse.fromSpringPage(trackingPage);
     }
 
     @Transactional(readOnly = true)
     public PageResponse<ApprovalTrackingResponse> getPendingApprovalsPaginated(
             int page, int size, String sortBy, String sortDirection) {
 
+        Page<ApprovalTrackingResponse> pendingPage = reportRepository.findApprovalTracking(
+                ReportSpecifications.hasValue("approvalStatus", "pending"),
+                pageRequest(page, size, sortBy, sortDirection));
+        return PageResponse.fromSpringPage(pendingPage);
+    }
+
+    private static Specification<Report> trackingFilter(
+            String productName, String batchNo, String specification,
+            String storageCondition, String market, String orientation, String pack) {
+        return Specification.allOf(
+                ReportSpecifications.hasValue("productName", productName),
+                ReportSpecifications.hasValue("batchNo", batchNo),
+                ReportSpecifications.hasValue("specification", specification),
+                ReportSpecifications.hasValue("storageCondition", storageCondition),
+                ReportSpecifications.hasValue("market", market),
+                ReportSpecifications.hasValue("sampleOrientation", orientation),
+                ReportSpecifications.hasValue("packSize", pack));
+    }
+
+    private static PageRequest pageRequest(int page, int size, String sortBy, String sortDirection) {
         Sort.Direction direction = "desc".equalsIgnoreCase(sortDirection)
             ? Sort.Direction.DESC
             : Sort.Direction.ASC;
 
-        PageRequest pageRequest;
         if (sortBy != null && !sortBy.isEmpty()) {
-            pageRequest = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        } else {
-            pageRequest = PageRequest.of(page, size, Sort.by(direction, "id"));
+            return PageRequest.of(page, size, Sort.by(direction, sortBy));
         }
-
-        Page<Report> reportPage = reportRepository.findAll(pageRequest);
-        List<ApprovalTrackingResponse> responses = reportPage.getContent().stream()
-                .filter(r -> "pending".equals(r.getApprovalStatus()))
-                .map(this::convertToApprovalTrackingResponse)
-                .collect(Collectors.toList());
-
-        Page<ApprovalTrackingResponse> responsePage = new PageImpl<>(
-                responses, pageRequest, reportPage.getTotalElements());
-        return PageResponse.fromSpringPage(responsePage);
+        return PageRequest.of(page, size, Sort.by(direction, "id"));
     }
 
     private ApprovalTrackingResponse convertToApprovalTrackingResponse(Report report) {
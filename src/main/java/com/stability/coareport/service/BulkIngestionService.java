@@ -0,0 +1,377 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.dto.BulkUploadResponse;
+import com.stability.coareport.dto.BulkUploadResponse.FileResult;
+import com.stability.coareport.dto.ParsedPdfData;
+import com.stability.coareport.entity.Branch;
+import com.stability.coareport.entity.Report;
+import com.stability.coareport.exception.ScannedPdfNotSupportedException;
+import com.stability.coareport.repository.BranchRepository;
+import com.stability.coareport.util.FileStorageUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports many CoA PDFs in one request, either as separate multipart parts or inside ZIP archives.
+ * <p>
+ * Archives are read entry by entry and each entry is streamed to its own staging file, so an
+ * archive is never unpacked in memory. Staged files are parsed on a fixed worker pool while the
+ * request thread keeps reading, with at most a few files in flight. Parsed reports are persisted
+ * in submission order, {@code ingestion.bulk.batch-size} per transaction. If a batch fails it is
+ * retried one report per transaction, so one bad row only fails its own file.
+ */
+@Service
+public class BulkIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIngestionService.class);
+    private static final String STAGING_DIR = "temp_uploads/bulk";
+
+    private final PdfParserService pdfParserService;
+    private final PdfParseCache pdfParseCache;
+    private final ReportService reportService;
+    private final BranchRepository branchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final int batchSize;
+    private final long maxEntryBytes;
+
+    public BulkIngestionService(PdfParserService pdfParserService,
+                                PdfParseCache pdfParseCache,
+                                ReportService reportService,
+                                BranchRepository branchRepository,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${ingestion.bulk.parallelism:4}") int parallelism,
+                                @Value("${ingestion.bulk.batch-size:25}") int batchSize,
+                                @Value("${ingestion.bulk.max-entry-bytes:52428800}") long maxEntryBytes) {
+        this.pdfParserService = pdfParserService;
+        this.pdfParseCache = pdfParseCache;
+        this.reportService = reportService;
+        this.branchRepository = branchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxInFlight = Math.max(1, parallelism) * 2;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxEntryBytes = maxEntryBytes;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "bulk-ingest-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static class Entry {
+        final String fileName;
+        final Path stagedPath;
+        final String contentHash;
+        ParsedPdfData parsedData;
+        Path finalPath;
+        FileResult result;
+
+        Entry(String fileName, Path stagedPath, String contentHash) {
+            this.fileName = fileName;
+            this.stagedPath = stagedPath;
+            this.contentHash = contentHash;
+        }
+    }
+
+    private class Run {
+        final Branch branch;
+        final String uploadedBy;
+        final Path stagingDir;
+        final Deque<Future<Entry>> inFlight = new ArrayDeque<>();
+        final List<Entry> batch = new ArrayList<>();
+        final BulkUploadResponse response = new BulkUploadResponse();
+        int staged;
+
+        Run(Branch branch, String uploadedBy, Path stagingDir) {
+            this.branch = branch;
+            this.uploadedBy = uploadedBy;
+            this.stagingDir = stagingDir;
+        }
+    }
+
+    public BulkUploadResponse ingest(List<MultipartFile> files, Long branchId, String uploadedBy) throws IOException {
+        long start = System.nanoTime();
+        Branch branch = branchRepository.findById(branchId)
+                .orElseThrow(() -> new RuntimeException("Branch not found"));
+
+        Path stagingDir = Paths.get(STAGING_DIR, UUID.randomUUID().toString());
+        Files.createDirectories(stagingDir);
+        Run run = new Run(branch, uploadedBy, stagingDir);
+
+        try {
+            for (MultipartFile file : files) {
+                String partName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "file";
+                if (isZip(file)) {
+                    ingestArchive(run, file, partName);
+                } else if (isPdf(partName)) {
+                    try (InputStream in = file.getInputStream()) {
+                        stage(run, partName, in);
+                    }
+                } else {
+                    reject(run, partName, "Unsupported file type, expected a PDF or ZIP archive");
+                }
+            }
+
+            while (!run.inFlight.isEmpty()) {
+                drainHead(run);
+            }
+            persistBatch(run);
+        } finally {
+            deleteRecursively(stagingDir);
+        }
+
+        BulkUploadResponse response = run.response;
+        response.setTotalFiles(response.getFiles().size());
+        response.setDurationMs((System.nanoTime() - start) / 1_000_000);
+        logger.info("Bulk upload by {} finished: {} files, {} imported, {} scanned, {} failed in {} ms",
+                uploadedBy, response.getTotalFiles(), response.getSucceeded(), response.getScannedRejected(),
+                response.getFailed(), response.getDurationMs());
+        return response;
+    }
+
+    /**
+     * Imports a single PDF that is already on local disk, on the calling thread and in its own
+     * transaction. On success the file has been moved into the uploads layout; otherwise it is left
+     * at {@code pdf} for the caller to deal with.
+     */
+    public FileResult importFile(Path pdf, String fileName, Branch branch, String uploadedBy) throws IOException {
+        Entry entry = parse(new Entry(fileName, pdf, FileStorageUtil.sha256(pdf)));
+        if (entry.result == null) {
+            try {
+                markImported(entry, transactionTemplate.execute(status -> save(branch, uploadedBy, entry)));
+            } catch (RuntimeException e) {
+                entry.result = new FileResult(fileName, FileResult.FAILED, null, null,
+                        "Could not save report: " + e.getMessage());
+                Files.move(entry.finalPath, pdf);
+            }
+        }
+        return entry.result;
+    }
+
+    private void ingestArchive(Run run, MultipartFile file, String archiveName) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(file.getInputStream())) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                String entryName = zipEntry.getName();
+                if (zipEntry.isDirectory() || isIgnoredEntry(entryName)) {
+                    continue;
+                }
+                String fileName = archiveName + "!/" + entryName;
+                if (isPdf(entryName)) {
+                    stage(run, fileName, zip);
+                } else {
+                    reject(run, fileName, "Unsupported file type, expected a PDF");
+                }
+            }
+        } catch (ZipException | IllegalArgumentException e) {
+            reject(run, archiveName, "Invalid ZIP archive: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams one PDF to the staging directory and hands it to the parser pool. When too many files
+     * are already in flight, the oldest is awaited first so staging never runs far ahead of parsing.
+     */
+    private void stage(Run run, String fileName, InputStream in) throws IOException {
+        while (run.inFlight.size() >= maxInFlight) {
+            drainHead(run);
+        }
+
+        Path stagedPath = run.stagingDir.resolve((++run.staged) + ".pdf");
+        String contentHash;
+        try {
+            contentHash = FileStorageUtil.saveStreamAndHash(in, stagedPath, maxEntryBytes);
+        } catch (IOException e) {
+            reject(run, fileName, "Could not read file: " + e.getMessage());
+            return;
+        }
+
+        Entry entry = new Entry(fileName, stagedPath, contentHash);
+        run.inFlight.add(executor.submit(() -> parse(entry)));
+    }
+
+    private void reject(Run run, String fileName, String message) {
+        Entry entry = new Entry(fileName, null, null);
+        entry.result = new FileResult(fileName, FileResult.FAILED, null, null, message);
+        run.inFlight.add(CompletableFuture.completedFuture(entry));
+    }
+
+    private Entry parse(Entry entry) {
+        try {
+            Optional<ParsedPdfData> cached = pdfParseCache.getParsedData(entry.contentHash);
+            ParsedPdfData parsedData;
+            if (cached.isPresent()) {
+                parsedData = cached.get();
+            } else {
+                parsedData = pdfParserService.parseDocument(entry.stagedPath, ParseProgressListener.NONE);
+                pdfParseCache.putParsedData(entry.contentHash, parsedData);
+            }
+            entry.finalPath = moveToUploads(entry, parsedData);
+            entry.parsedData = parsedData;
+        } catch (ScannedPdfNotSupportedException e) {
+            entry.result = new FileResult(entry.fileName, FileResult.SCANNED_REJECTED, null, null, e.getMessage());
+        } catch (Exception e) {
+            logger.warn("Bulk upload could not parse {}: {}", entry.fileName, e.getMessage());
+            entry.result = new FileResult(entry.fileName, FileResult.FAILED, null, null, e.getMessage());
+        }
+        return entry;
+    }
+
+    private Path moveToUploads(Entry entry, ParsedPdfData parsedData) throws IOException {
+        Path target = Paths.get(FileStorageUtil.generateFilePath(
+                parsedData.getProductName(), parsedData.getBatchNo(), parsedData.getStorageCondition(), baseName(entry)));
+        FileStorageUtil.ensureDirectoryExists(target.toString());
+
+        // Archives often hold several files with the same name for one batch/storage condition
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return Files.move(entry.stagedPath, target);
+            } catch (FileAlreadyExistsException e) {
+                target = target.resolveSibling(attempt + "_" + target.getFileName());
+            }
+        }
+    }
+
+    private void drainHead(Run run) {
+        Future<Entry> head = run.inFlight.poll();
+        Entry entry;
+        try {
+            entry = head.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Bulk upload interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Bulk upload worker failed", e.getCause());
+        }
+
+        run.batch.add(entry);
+        if (run.batch.size() >= batchSize) {
+            persistBatch(run);
+        }
+    }
+
+    private void persistBatch(Run run) {
+        List<Entry> batch = new ArrayList<>(run.batch);
+        run.batch.clear();
+
+        List<Entry> parsed = batch.stream().filter(e -> e.result == null).toList();
+        if (!parsed.isEmpty()) {
+            try {
+                List<Report> reports = transactionTemplate.execute(status -> {
+                    List<Report> saved = new ArrayList<>();
+                    for (Entry entry : parsed) {
+                        saved.add(save(run.branch, run.uploadedBy, entry));
+                    }
+                    return saved;
+                });
+                for (int i = 0; i < parsed.size(); i++) {
+                    markImported(parsed.get(i), reports.get(i));
+                }
+            } catch (RuntimeException batchFailure) {
+                logger.warn("Bulk batch of {} reports failed ({}), retrying one by one",
+                        parsed.size(), batchFailure.getMessage());
+                for (Entry entry : parsed) {
+                    try {
+                        markImported(entry, transactionTemplate.execute(status -> save(run.branch, run.uploadedBy, entry)));
+                    } catch (RuntimeException e) {
+                        entry.result = new FileResult(entry.fileName, FileResult.FAILED, null, null,
+                                "Could not save report: " + e.getMessage());
+                        deleteQuietly(entry.finalPath);
+                    }
+                }
+            }
+        }
+
+        BulkUploadResponse response = run.response;
+        for (Entry entry : batch) {
+            FileResult result = entry.result;
+            response.getFiles().add(result);
+            switch (result.getStatus()) {
+                case FileResult.SUCCESS -> response.setSucceeded(response.getSucceeded() + 1);
+                case FileResult.SCANNED_REJECTED -> response.setScannedRejected(response.getScannedRejected() + 1);
+                default -> response.setFailed(response.getFailed() + 1);
+            }
+            meterRegistry.counter("reports.bulk.files", "status", result.getStatus()).increment();
+        }
+    }
+
+    private Report save(Branch branch, String uploadedBy, Entry entry) {
+        return reportService.saveParsedReport(entry.parsedData, branch, baseName(entry), entry.finalPath, uploadedBy);
+    }
+
+    private String baseName(Entry entry) {
+        return entry.fileName.substring(entry.fileName.lastIndexOf('/') + 1);
+    }
+
+    private void markImported(Entry entry, Report report) {
+        int testCount = report.getTestResults() != null ? report.getTestResults().size() : 0;
+        entry.result = new FileResult(entry.fileName, FileResult.SUCCESS, report.getId(), testCount, null);
+    }
+
+    private boolean isZip(MultipartFile file) {
+        String name = file.getOriginalFilename();
+        String contentType = file.getContentType();
+        return (name != null && name.toLowerCase().endsWith(".zip"))
+                || "application/zip".equals(contentType)
+                || "application/x-zip-compressed".equals(contentType);
+    }
+
+    private boolean isPdf(String name) {
+        return name.toLowerCase().endsWith(".pdf");
+    }
+
+    private boolean isIgnoredEntry(String name) {
+        String baseName = name.substring(name.lastIndexOf('/') + 1);
+        return name.startsWith("__MACOSX/") || baseName.startsWith(".");
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            logger.warn("Could not clean up bulk staging directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
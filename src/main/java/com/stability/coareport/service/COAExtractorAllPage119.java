@@ -1,10 +1,12 @@
 package example.pdf;
 
 
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.pdfbox.text.TextPosition;
+import com.stability.coareport.service.PdfLayout;
+import com.stability.coareport.service.PdfLayout.Cell;
+import com.stability.coareport.service.PdfLayout.Page;
+import com.stability.coareport.service.PdfLayout.Row;
+import com.stability.coareport.service.PdfLayoutExtractor;
+import com.stability.coareport.util.CoaPatterns;
 
 import java.io.File;
 import java.io.IOException;
@@ -15,90 +17,6 @@ public class COAExtractorAllPage119 {
 
     private static final boolean KEEP_PARENT_HEADERS = true;
 
-    static class Cell {
-        final float x;
-        final String text;
-        Cell(float x, String text) { this.x = x; this.text = text; }
-    }
-
-    static class Row {
-        final float y;
-        final List<Cell> cells = new ArrayList<>();
-        Row(float y) { this.y = y; }
-    }
-
-    static class PageText {
-        final List<Row> rows = new ArrayList<>();
-    }
-
-    private static class PositionStripper extends PDFTextStripper {
-        private final List<PageText> pages = new ArrayList<>();
-        private PageText currentPage;
-
-        PositionStripper() throws IOException {
-            super();
-            setSortByPosition(true);
-        }
-
-        List<PageText> getPages() { return pages; }
-
-        @Override
-        protected void startPage(org.apache.pdfbox.pdmodel.PDPage page) throws IOException {
-            currentPage = new PageText();
-            pages.add(currentPage);
-            super.startPage(page);
-        }
-
-        @Override
-        protected void writeString(String string, List<TextPosition> textPositions) throws IOException {
-            if (currentPage == null || textPositions.isEmpty()) return;
-
-            Map<Integer, List<TextPosition>> lineBuckets = new LinkedHashMap<>();
-            for (TextPosition tp : textPositions) {
-                int key = Math.round(tp.getYDirAdj());
-                lineBuckets.computeIfAbsent(key, k -> new ArrayList<>()).add(tp);
-            }
-
-            for (List<TextPosition> line : lineBuckets.values()) {
-                line.sort(Comparator.comparing(TextPosition::getXDirAdj));
-                float y = line.get(0).getYDirAdj();
-                Row row = new Row(y);
-
-                StringBuilder word = new StringBuilder();
-                float wordStartX = -1f;
-                float lastRight = -1f;
-
-                for (TextPosition tp : line) {
-                    float x = tp.getXDirAdj();
-                    float right = x + tp.getWidth();
-                    String ch = tp.getUnicode();
-
-                    if (lastRight >= 0) {
-                        float gap = x - lastRight;
-                        if (gap > tp.getWidthOfSpace() / 2.0) {
-                            if (word.length() > 0) {
-                                row.cells.add(new Cell(wordStartX >= 0 ? wordStartX : x, word.toString().trim()));
-                                word.setLength(0);
-                            }
-                            wordStartX = x;
-                        }
-                    } else {
-                        wordStartX = x;
-                    }
-
-                    word.append(ch);
-                    lastRight = right;
-                }
-
-                if (word.length() > 0) {
-                    row.cells.add(new Cell(wordStartX >= 0 ? wordStartX : 0f, word.toString().trim()));
-                }
-
-                if (!row.cells.isEmpty()) currentPage.rows.add(row);
-            }
-        }
-    }
-
     public static class PDFRecordCOAReport {
         public final String sNo;
         public final String test;
@@ -129,19 +47,16 @@ public class COAExtractorAllPage119 {
     }
 
     public static Result extract(File pdfFile) throws Exception {
-        try (PDDocument doc = Loader.loadPDF(pdfFile)) {
-            PositionStripper stripper = new PositionStripper();
-            stripper.getText(doc);
+        PdfLayout layout = new PdfLayoutExtractor().extract(pdfFile);
 
-            Result result = new Result();
-            for (PageText page : stripper.getPages()) {
-                parsePage(page, result.firstTable, result.secondTable);
-            }
-            return result;
+        Result result = new Result();
+        for (Page page : layout.getPages()) {
+            parsePage(page, result.firstTable, result.secondTable);
         }
+        return result;
     }
 
-    private static void parsePage(PageText page,
+    private static void parsePage(Page page,
                                   LinkedHashMap<String, String> firstTableOut,
                                   LinkedHashMap<String, PDFRecordCOAReport> secondTableOut) {
 
@@ -240,28 +155,13 @@ public class COAExtractorAllPage119 {
     }
 
     private static String normalize(String text) {
-        if (text == null) return "";
-        String t = text.trim();
-        t = t.replaceAll("[:\\-]+$", "");
-        t = t.replaceAll("\\s+", " ");
-        t = t.replaceAll("\\(\\s+", "(").replaceAll("\\s+\\)", ")");
-        return t;
+        return CoaPatterns.normalizeCellText(text);
     }
 
     private static String stripFooterFragments(String text) {
         if (text == null) return "";
-        String t = text;
-
-        t = t.replaceAll("\\s*Remarks:.*$", "");
-        t = t.replaceAll("\\s*Checked by.*$", "");
-        t = t.replaceAll("\\s*Approved by.*$", "");
-        t = t.replaceAll("\\s*Date:.*$", "");
-
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+(Pharma|Pharmaceuticals?)\\s+(Limited|Ltd\\.?|Pvt\\.?).*$", "");
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+,\\s*Plot\\s+(no\\.?|Nos?\\.?).*$", "");
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}\\s*$", "");
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+,\\s*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}.*$", "");
-
+        String t = CoaPatterns.COA_FOOTER_LABEL_TAIL.matcher(text).replaceFirst("");
+        t = CoaPatterns.stripAddressTails(t);
         return t.trim();
     }
 
@@ -270,24 +170,11 @@ public class COAExtractorAllPage119 {
 
         if (l.isEmpty()) return false;
 
-        if (l.startsWith("remarks") || l.contains("checked by") ||
-                l.contains("approved by") || l.matches(".*\\bdate:.*")) {
-            return true;
-        }
-
-        if (l.matches("(?i).*(pharma|pharmaceuticals?)\\s+(limited|ltd\\.?|pvt\\.?).*")) {
-            return true;
-        }
-
-        if (l.matches("(?i).*plot\\s+(no\\.?|nos?\\.?|number).*")) {
-            return true;
-        }
-
-        if (l.matches(".*\\d{5,6}\\s*$")) {
+        if (l.startsWith("remarks") || l.contains("checked by") || l.contains("approved by")) {
             return true;
         }
 
-        if (l.matches("(?i).*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}.*")) {
+        if (CoaPatterns.COA_FOOTER_LINE.matcher(l).find()) {
             return true;
         }
 
@@ -353,8 +240,8 @@ public class COAExtractorAllPage119 {
                 hc.sort(Comparator.comparing(c -> c.x));
                 for (Cell c : hc) {
                     String t = c.text.toLowerCase();
-                    String normalized = t.replaceAll("[\\s.]+", "");
-                    if (normalized.contains("sno") || t.matches(".*s\\.?\\s*no\\.?.*")) xSno = c.x;
+                    String normalized = CoaPatterns.WHITESPACE_AND_DOTS.matcher(t).replaceAll("");
+                    if (normalized.contains("sno") || CoaPatterns.SNO_HEADER.matcher(t).find()) xSno = c.x;
                     else if (t.contains("test")) xTest = c.x;
                     else if (t.contains("result")) xResult = c.x;
                     else if (t.contains("spec")) xSpec = c.x;
@@ -371,19 +258,19 @@ public class COAExtractorAllPage119 {
 
         final java.util.function.Function<String, String> sanitizeSno = (s) -> {
             if (s == null) return "";
-            String[] parts = s.trim().split("\\s+");
+            String[] parts = CoaPatterns.WHITESPACE.split(s.trim());
             for (String p : parts) {
-                if (p.matches("^(\\d+)(?:\\.\\d+)?$")) return p;
+                if (CoaPatterns.SNO_VALUE.matcher(p).matches()) return p;
             }
             return "";
         };
         final java.util.function.Function<String, String> trailingFromSnoIntoTest = (s) -> {
             if (s == null) return "";
-            String[] parts = s.trim().split("\\s+");
+            String[] parts = CoaPatterns.WHITESPACE.split(s.trim());
             StringBuilder sb = new StringBuilder();
             boolean firstNumFound = false;
             for (String p : parts) {
-                if (!firstNumFound && p.matches("^(\\d+)(?:\\.\\d+)?$")) {
+                if (!firstNumFound && CoaPatterns.SNO_VALUE.matcher(p).matches()) {
                     firstNumFound = true;
                     continue;
                 }
@@ -426,12 +313,12 @@ public class COAExtractorAllPage119 {
             }
 
             boolean hasSnoToken = !snoStr.isEmpty();
-            boolean isParent = snoStr.matches("^\\d+$");
+            boolean isParent = CoaPatterns.PARENT_SNO.matcher(snoStr).matches();
             boolean hasValues = !(resultStr.isEmpty() && specStr.isEmpty());
 
             if (hasSnoToken) {
                 if (inRow) {
-                    boolean prevParentOnly = sNoBuf.matches("^\\d+$") && resultBuf.isEmpty() && specBuf.isEmpty();
+                    boolean prevParentOnly = CoaPatterns.PARENT_SNO.matcher(sNoBuf).matches() && resultBuf.isEmpty() && specBuf.isEmpty();
                     if (!prevParentOnly || KEEP_PARENT_HEADERS) {
                         flushSecondTableRow(out, sNoBuf, testBuf, resultBuf, specBuf);
                     }
@@ -457,7 +344,7 @@ public class COAExtractorAllPage119 {
         }
 
         if (inRow && !sNoBuf.isEmpty()) {
-            boolean parentOnly = sNoBuf.matches("^\\d+$") && resultBuf.isEmpty() && specBuf.isEmpty();
+            boolean parentOnly = CoaPatterns.PARENT_SNO.matcher(sNoBuf).matches() && resultBuf.isEmpty() && specBuf.isEmpty();
             if (!parentOnly || KEEP_PARENT_HEADERS) {
                 flushSecondTableRow(out, sNoBuf, testBuf, resultBuf, specBuf);
             }
@@ -0,0 +1,175 @@
+package com.stability.coareport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stability.coareport.dto.ParsedPdfData;
+import com.stability.coareport.repository.PendingPreviewRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link PreviewStore} backed by the {@code pending_previews} table, so preview and submit may be
+ * served by different nodes without sticky sessions.
+ * <p>
+ * The parsed data is kept as gzipped JSON and the staged PDF as bytes; a node that receives a
+ * submit for a preview staged elsewhere writes the PDF back to the same path under
+ * {@code temp_uploads} first. PDFs of up to the upload limit are streamed between the file and the
+ * column through JDBC instead of passing through the entity as one array. Rows idle for {@code preview.store.ttl-minutes} are deleted by the
+ * sweeper, which runs on every node and also removes that node's stale staged files.
+ */
+@Component
+@ConditionalOnProperty(name = "preview.store.type", havingValue = "database")
+public class DatabasePreviewStore implements PreviewStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabasePreviewStore.class);
+
+    private static final String INSERT =
+            "INSERT INTO pending_previews (id, file_name, pdf_path, pdf_content, data_gzip, created_at, last_access_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final PendingPreviewRepository pendingPreviewRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final long ttlMinutes;
+
+    public DatabasePreviewStore(PendingPreviewRepository pendingPreviewRepository,
+                                JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${preview.store.ttl-minutes:120}") long ttlMinutes) {
+        this.pendingPreviewRepository = pendingPreviewRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ttlMinutes = ttlMinutes;
+    }
+
+    @Override
+    public void put(String tempFileId, String fileName, Path pdfPath, ParsedPdfData data) {
+        LocalDateTime now = LocalDateTime.now();
+        try (InputStream pdf = Files.newInputStream(pdfPath)) {
+            long size = Files.size(pdfPath);
+            byte[] dataGzip = compress(data);
+            jdbcTemplate.update(INSERT, ps -> {
+                ps.setString(1, tempFileId);
+                ps.setString(2, fileName);
+                ps.setString(3, pdfPath.toString());
+                ps.setBinaryStream(4, pdf, size);
+                ps.setBytes(5, dataGzip);
+                ps.setObject(6, now);
+                ps.setObject(7, now);
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store preview " + tempFileId, e);
+        }
+    }
+
+    @Override
+    public Optional<Preview> get(String tempFileId) {
+        Optional<PendingPreviewRepository.PreviewData> row = pendingPreviewRepository.findPreviewDataById(tempFileId);
+        if (row.isEmpty()) {
+            meterRegistry.counter("preview.store.misses").increment();
+            return Optional.empty();
+        }
+        pendingPreviewRepository.touch(tempFileId, LocalDateTime.now());
+
+        try {
+            ParsedPdfData data = decompress(row.get().getDataGzip());
+            meterRegistry.counter("preview.store.hits", "tier", "database").increment();
+            return Optional.of(new Preview(row.get().getFileName(), Paths.get(row.get().getPdfPath()), data));
+        } catch (IOException e) {
+            logger.warn("Could not read stored preview {}: {}", tempFileId, e.getMessage());
+            meterRegistry.counter("preview.store.misses").increment();
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<Path> localPdf(String tempFileId) {
+        Optional<PendingPreviewRepository.PreviewData> row = pendingPreviewRepository.findPreviewDataById(tempFileId);
+        if (row.isEmpty()) {
+            return Optional.empty();
+        }
+        Path pdfPath = Paths.get(row.get().getPdfPath());
+        if (Files.exists(pdfPath)) {
+            return Optional.of(pdfPath);
+        }
+
+        try {
+            Files.createDirectories(pdfPath.toAbsolutePath().getParent());
+            Path part = pdfPath.resolveSibling(pdfPath.getFileName() + ".part");
+            Boolean found = jdbcTemplate.query("SELECT pdf_content FROM pending_previews WHERE id = ?", rs -> {
+                if (!rs.next()) {
+                    return false;
+                }
+                try (InputStream in = rs.getBinaryStream(1)) {
+                    Files.copy(in, part, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            }, tempFileId);
+            if (!Boolean.TRUE.equals(found)) {
+                return Optional.empty();
+            }
+            Files.move(part, pdfPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            meterRegistry.counter("preview.store.pdf.restored").increment();
+            return Optional.of(pdfPath);
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Could not restore staged PDF of preview {}: {}", tempFileId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void remove(String tempFileId) {
+        pendingPreviewRepository.deletePreview(tempFileId);
+    }
+
+    @Scheduled(fixedDelayString = "${preview.store.sweep-interval-ms:300000}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ttlMinutes);
+        int expired = pendingPreviewRepository.deleteIdleSince(cutoff);
+        if (expired > 0) {
+            meterRegistry.counter("preview.store.evictions", "cause", "expired").increment(expired);
+        }
+
+        // Staged files can be restored from the table, so anything older than the TTL may go
+        long fileCutoff = System.currentTimeMillis() - ttlMinutes * 60_000;
+        int orphans = PreviewFiles.deleteOrphans(PreviewFiles.TEMP_UPLOAD_DIR, Set.of(), fileCutoff);
+        if (expired > 0 || orphans > 0) {
+            logger.info("Preview sweep: {} expired previews, {} stale temp files deleted", expired, orphans);
+        }
+    }
+
+    private byte[] compress(ParsedPdfData data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private ParsedPdfData decompress(byte[] dataGzip) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(dataGzip))) {
+            return objectMapper.readValue(in, ParsedPdfData.class);
+        }
+    }
+}
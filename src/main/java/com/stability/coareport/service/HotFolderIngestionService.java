@@ -0,0 +1,336 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.dto.BulkUploadResponse.FileResult;
+import com.stability.coareport.entity.Branch;
+import com.stability.coareport.repository.BranchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Imports CoA PDFs that the LIMS exports into a shared directory, without anyone uploading them.
+ * <p>
+ * Files are expected at {@code <root>/<branch>/<file>.pdf}, where the folder name is a branch code,
+ * id or name. A file is picked up once its size and modification time have not changed for
+ * {@code ingestion.hot-folder.settle-ms}, so half-written exports are left alone. It is then moved
+ * into {@code <root>/.processing} and imported on a fixed worker pool. Imported files end up in the
+ * usual uploads layout; anything that fails goes to {@code <root>/_failed/<branch>} with a
+ * {@code .error.txt} next to it. When the worker queue is full, settled files simply stay where
+ * they are until a slot frees up.
+ */
+@Service
+@ConditionalOnProperty(name = "ingestion.hot-folder.enabled", havingValue = "true")
+public class HotFolderIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotFolderIngestionService.class);
+    private static final String PROCESSING_DIR = ".processing";
+    private static final String FAILED_DIR = "_failed";
+
+    private final BulkIngestionService bulkIngestionService;
+    private final BranchRepository branchRepository;
+    private final MeterRegistry meterRegistry;
+    private final Path root;
+    private final long settleMillis;
+    private final long pollMillis;
+    private final String uploadedBy;
+    private final ThreadPoolExecutor executor;
+    private final Map<Path, Candidate> candidates = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+    private Thread watcherThread;
+    private volatile boolean running;
+
+    private static class Candidate {
+        long size;
+        long modified;
+        long stableSince;
+
+        Candidate(long size, long modified, long now) {
+            this.size = size;
+            this.modified = modified;
+            this.stableSince = now;
+        }
+    }
+
+    public HotFolderIngestionService(BulkIngestionService bulkIngestionService,
+                                     BranchRepository branchRepository,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${ingestion.hot-folder.path:hot_folder}") String path,
+                                     @Value("${ingestion.hot-folder.concurrency:2}") int concurrency,
+                                     @Value("${ingestion.hot-folder.queue-capacity:50}") int queueCapacity,
+                                     @Value("${ingestion.hot-folder.settle-ms:5000}") long settleMillis,
+                                     @Value("${ingestion.hot-folder.poll-interval-ms:1000}") long pollMillis,
+                                     @Value("${ingestion.hot-folder.uploaded-by:hot-folder}") String uploadedBy) {
+        this.bulkIngestionService = bulkIngestionService;
+        this.branchRepository = branchRepository;
+        this.meterRegistry = meterRegistry;
+        this.root = Paths.get(path).toAbsolutePath().normalize();
+        this.settleMillis = settleMillis;
+        this.pollMillis = pollMillis;
+        this.uploadedBy = uploadedBy;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "hot-folder-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge("ingestion.hot_folder.pending", candidates, Map::size);
+        meterRegistry.gauge("ingestion.hot_folder.queued", executor, e -> e.getQueue().size());
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(root.resolve(PROCESSING_DIR));
+        Files.createDirectories(root.resolve(FAILED_DIR));
+        watchService = root.getFileSystem().newWatchService();
+        register(root);
+
+        // Anything left in .processing was interrupted by a shutdown; give it another go
+        Path processing = root.resolve(PROCESSING_DIR);
+        try (Stream<Path> leftovers = Files.walk(processing)) {
+            for (Path file : leftovers.filter(Files::isRegularFile).toList()) {
+                Path original = root.resolve(processing.relativize(file));
+                Files.createDirectories(original.getParent());
+                Files.move(file, original, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        scan();
+
+        running = true;
+        watcherThread = new Thread(this::watchLoop, "hot-folder-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        logger.info("Watching {} for CoA PDFs", root);
+    }
+
+    private void watchLoop() {
+        while (running) {
+            try {
+                WatchKey key = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    handleEvents(key);
+                }
+                dispatchSettled();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            } catch (Exception e) {
+                logger.error("Hot-folder watcher error", e);
+            }
+        }
+    }
+
+    private void handleEvents(WatchKey key) throws IOException {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                scan();
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (Files.isDirectory(path)) {
+                if (dir.equals(root) && !isReservedDir(path)) {
+                    register(path);
+                    scanDir(path);
+                }
+            } else {
+                observe(path);
+            }
+        }
+        key.reset();
+    }
+
+    private void register(Path dir) throws IOException {
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        if (dir.equals(root)) {
+            try (Stream<Path> children = Files.list(root)) {
+                for (Path child : children.filter(Files::isDirectory).filter(p -> !isReservedDir(p)).toList()) {
+                    child.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                }
+            }
+        }
+    }
+
+    private void scan() throws IOException {
+        scanDir(root);
+        try (Stream<Path> children = Files.list(root)) {
+            for (Path child : children.filter(Files::isDirectory).filter(p -> !isReservedDir(p)).toList()) {
+                scanDir(child);
+            }
+        }
+    }
+
+    private void scanDir(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(Files::isRegularFile).forEach(this::observe);
+        }
+    }
+
+    private void observe(Path file) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(".") || !name.toLowerCase().endsWith(".pdf")) {
+            return;
+        }
+        candidates.putIfAbsent(file, new Candidate(-1, -1, System.currentTimeMillis()));
+    }
+
+    /**
+     * Hands over files whose size and modification time have stayed put for the settle period.
+     */
+    private void dispatchSettled() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Path, Candidate> e : candidates.entrySet()) {
+            Path file = e.getKey();
+            Candidate candidate = e.getValue();
+
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (IOException gone) {
+                candidates.remove(file);
+                continue;
+            }
+
+            long size = attrs.size();
+            long modified = attrs.lastModifiedTime().toMillis();
+            if (size != candidate.size || modified != candidate.modified) {
+                candidate.size = size;
+                candidate.modified = modified;
+                candidate.stableSince = now;
+                continue;
+            }
+            if (size == 0 || now - candidate.stableSince < settleMillis) {
+                continue;
+            }
+            if (executor.getQueue().remainingCapacity() == 0) {
+                // Back-pressure: leave the rest where they are until the workers catch up
+                return;
+            }
+
+            Path claimed = claim(file);
+            if (claimed == null) {
+                continue;
+            }
+            candidates.remove(file);
+            try {
+                executor.execute(() -> process(claimed));
+            } catch (RejectedExecutionException rejected) {
+                unclaim(claimed, file);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves the file out of the watched folder so it is not picked up twice. Fails (and is retried
+     * on the next poll) while the exporting process still holds a lock on it.
+     */
+    private Path claim(Path file) {
+        Path target = root.resolve(PROCESSING_DIR).resolve(root.relativize(file));
+        try {
+            Files.createDirectories(target.getParent());
+            return Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.debug("Could not claim {} yet: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void unclaim(Path claimed, Path original) {
+        try {
+            Files.move(claimed, original);
+        } catch (IOException e) {
+            logger.warn("Could not return {} to the hot folder: {}", claimed, e.getMessage());
+        }
+    }
+
+    private void process(Path file) {
+        Path relative = root.resolve(PROCESSING_DIR).relativize(file);
+        String outcome;
+        String message;
+        try {
+            Optional<Branch> branch = relative.getNameCount() > 1
+                    ? resolveBranch(relative.getName(0).toString())
+                    : Optional.empty();
+            if (branch.isEmpty()) {
+                outcome = FileResult.FAILED;
+                message = "No branch folder matches '" + (relative.getNameCount() > 1 ? relative.getName(0) : "")
+                        + "'; place files in <hot folder>/<branch code>/";
+            } else {
+                FileResult result = bulkIngestionService.importFile(file, relative.toString(), branch.get(), uploadedBy);
+                outcome = result.getStatus();
+                message = result.getMessage();
+                if (FileResult.SUCCESS.equals(outcome)) {
+                    logger.info("Hot folder imported {} as report {}", relative, result.getReportId());
+                }
+            }
+        } catch (Exception e) {
+            outcome = FileResult.FAILED;
+            message = e.getMessage();
+        }
+
+        meterRegistry.counter("ingestion.hot_folder.files", "status", outcome).increment();
+        if (!FileResult.SUCCESS.equals(outcome)) {
+            logger.warn("Hot folder could not import {}: {}", relative, message);
+            moveToFailed(file, relative, message);
+        }
+    }
+
+    private Optional<Branch> resolveBranch(String folderName) {
+        Optional<Branch> branch = branchRepository.findFirstByCodeIgnoreCase(folderName);
+        if (branch.isEmpty() && folderName.chars().allMatch(Character::isDigit)) {
+            branch = branchRepository.findById(Long.parseLong(folderName));
+        }
+        if (branch.isEmpty()) {
+            branch = branchRepository.findByName(folderName);
+        }
+        return branch;
+    }
+
+    private void moveToFailed(Path file, Path relative, String message) {
+        try {
+            Path target = root.resolve(FAILED_DIR).resolve(relative);
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            Files.writeString(target.resolveSibling(target.getFileName() + ".error.txt"),
+                    message != null ? message : "Unknown error");
+        } catch (IOException e) {
+            logger.error("Could not move {} to the failed folder: {}", file, e.getMessage());
+        }
+    }
+
+    private boolean isReservedDir(Path dir) {
+        String name = dir.getFileName().toString();
+        return name.equals(PROCESSING_DIR) || name.equals(FAILED_DIR) || name.startsWith(".");
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        running = false;
+        if (watchService != null) {
+            watchService.close();
+        }
+        executor.shutdown();
+    }
+}
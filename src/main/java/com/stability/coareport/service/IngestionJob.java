@@ -0,0 +1,169 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.dto.IngestionJobResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State of one asynchronous PDF ingestion. Written by a single worker thread (and the parsing
+ * pool via {@link ParseProgressListener}), read by status requests.
+ */
+public class IngestionJob implements ParseProgressListener {
+
+    public enum Type {
+        PREVIEW,
+        PRODUCT_BASED_UPLOAD
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final String id;
+    private final Type type;
+    private final String fileName;
+    private final String submittedBy;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final Map<IngestionStage, Long> stageStartNanos = new EnumMap<>(IngestionStage.class);
+    private final Map<IngestionStage, Long> stageDurationNanos = new EnumMap<>(IngestionStage.class);
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile IngestionStage currentStage;
+    private volatile int pagesStripped;
+    private volatile int totalPages;
+    private volatile Object result;
+    private volatile String errorCode;
+    private volatile String errorMessage;
+
+    public IngestionJob(String id, Type type, String fileName, String submittedBy) {
+        this.id = id;
+        this.type = type;
+        this.fileName = fileName;
+        this.submittedBy = submittedBy;
+    }
+
+    void markRunning() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void markSucceeded(Object result) {
+        this.result = result;
+        finishCurrentStage();
+        finishedAt = LocalDateTime.now();
+        status = Status.SUCCEEDED;
+    }
+
+    void markFailed(String errorCode, String errorMessage) {
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+        finishCurrentStage();
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    @Override
+    public synchronized void stageStarted(IngestionStage stage) {
+        finishCurrentStage();
+        currentStage = stage;
+        stageStartNanos.put(stage, System.nanoTime());
+    }
+
+    @Override
+    public void pagesStripped(int done, int total) {
+        totalPages = total;
+        if (done > pagesStripped) {
+            pagesStripped = done;
+        }
+    }
+
+    private synchronized void finishCurrentStage() {
+        IngestionStage stage = currentStage;
+        if (stage != null && !stageDurationNanos.containsKey(stage)) {
+            stageDurationNanos.put(stage, System.nanoTime() - stageStartNanos.get(stage));
+        }
+    }
+
+    public synchronized IngestionJobResponse toResponse() {
+        List<IngestionJobResponse.StageProgress> stages = new ArrayList<>();
+        for (IngestionStage stage : IngestionStage.values()) {
+            String stageStatus;
+            Long durationMs = null;
+            if (stageDurationNanos.containsKey(stage)) {
+                stageStatus = status == Status.FAILED && stage == currentStage ? "FAILED" : "DONE";
+                durationMs = stageDurationNanos.get(stage) / 1_000_000;
+            } else if (stage == currentStage) {
+                stageStatus = "RUNNING";
+                durationMs = (System.nanoTime() - stageStartNanos.get(stage)) / 1_000_000;
+            } else if (status == Status.SUCCEEDED) {
+                // Cached parse results skip the PDFBox stages entirely
+                stageStatus = "SKIPPED";
+            } else {
+                stageStatus = "PENDING";
+            }
+            stages.add(new IngestionJobResponse.StageProgress(stage.name(), stageStatus, durationMs));
+        }
+
+        return new IngestionJobResponse(
+                id,
+                type.name(),
+                status.name(),
+                fileName,
+                submittedBy,
+                submittedAt,
+                startedAt,
+                finishedAt,
+                currentStage != null ? currentStage.name() : null,
+                totalPages > 0 ? pagesStripped : null,
+                totalPages > 0 ? totalPages : null,
+                stages,
+                errorCode,
+                errorMessage
+        );
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getSubmittedBy() {
+        return submittedBy;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+}
@@ -0,0 +1,169 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.dto.ProductBasedUploadRequest;
+import com.stability.coareport.dto.StagedUpload;
+import com.stability.coareport.entity.Report;
+import com.stability.coareport.exception.IngestionQueueFullException;
+import com.stability.coareport.exception.InvalidPdfException;
+import com.stability.coareport.exception.PdfParseAbortedException;
+import com.stability.coareport.exception.ScannedPdfNotSupportedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs PDF ingestion off the request thread. The request only streams the upload to disk; parsing
+ * and persisting happen on a small fixed worker pool with a bounded queue, so a burst of uploads
+ * is rejected early instead of tying up Tomcat threads that serve the read APIs.
+ */
+@Service
+public class IngestionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionJobService.class);
+
+    private final ReportService reportService;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final long retentionMinutes;
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+
+    public IngestionJobService(ReportService reportService,
+                               MeterRegistry meterRegistry,
+                               @Value("${ingestion.jobs.workers:2}") int workers,
+                               @Value("${ingestion.jobs.queue-capacity:20}") int queueCapacity,
+                               @Value("${ingestion.jobs.retention-minutes:60}") long retentionMinutes) {
+        this.reportService = reportService;
+        this.meterRegistry = meterRegistry;
+        this.retentionMinutes = retentionMinutes;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ingestion-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge("ingestion.jobs.queued", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("ingestion.jobs.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    public IngestionJob submitPreview(MultipartFile file, String username) throws IOException {
+        ensureCapacity();
+        StagedUpload upload = reportService.stagePreviewUpload(file);
+        IngestionJob job = new IngestionJob(UUID.randomUUID().toString(), IngestionJob.Type.PREVIEW,
+                upload.getOriginalFilename(), username);
+
+        return enqueue(job, upload, () -> reportService.uploadForPreview(upload, job));
+    }
+
+    public IngestionJob submitProductBasedUpload(MultipartFile file, ProductBasedUploadRequest request,
+                                                 String username) throws IOException {
+        ensureCapacity();
+        StagedUpload upload = reportService.stageProductBasedUpload(file, request);
+        IngestionJob job = new IngestionJob(UUID.randomUUID().toString(), IngestionJob.Type.PRODUCT_BASED_UPLOAD,
+                upload.getOriginalFilename(), username);
+
+        return enqueue(job, upload, () -> {
+            Report report = reportService.processProductBasedUpload(upload, request, username, job);
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("message", "Report uploaded successfully");
+            result.put("reportId", report.getId());
+            return result;
+        });
+    }
+
+    public Optional<IngestionJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.jobs.cleanup-interval-ms:60000}")
+    public void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    /**
+     * Fails fast before the upload is streamed to disk when the queue is already full.
+     */
+    private void ensureCapacity() {
+        if (executor.getQueue().remainingCapacity() == 0
+                && executor.getActiveCount() >= executor.getMaximumPoolSize()) {
+            meterRegistry.counter("ingestion.jobs.rejected").increment();
+            throw new IngestionQueueFullException("Ingestion queue is full, please retry shortly");
+        }
+    }
+
+    private IngestionJob enqueue(IngestionJob job, StagedUpload upload, Callable<Object> work) throws IOException {
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, upload, work));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(upload.getPath());
+            meterRegistry.counter("ingestion.jobs.rejected").increment();
+            throw new IngestionQueueFullException("Ingestion queue is full, please retry shortly", e);
+        }
+        meterRegistry.counter("ingestion.jobs.submitted", "type", job.getType().name()).increment();
+        logger.info("Queued ingestion job {} ({}) for {}", job.getId(), job.getType(), upload.getOriginalFilename());
+        return job;
+    }
+
+    private void run(IngestionJob job, StagedUpload upload, Callable<Object> work) {
+        job.markRunning();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            job.markSucceeded(work.call());
+        } catch (ScannedPdfNotSupportedException e) {
+            outcome = "scanned";
+            job.markFailed("SCANNED_PDF_NOT_SUPPORTED", e.getMessage());
+        } catch (InvalidPdfException e) {
+            outcome = "invalid";
+            job.markFailed("INVALID_PDF", e.getMessage());
+        } catch (PdfParseAbortedException e) {
+            outcome = "aborted";
+            job.markFailed("PARSE_ABORTED", e.getMessage());
+        } catch (Exception e) {
+            outcome = "failed";
+            logger.error("Ingestion job {} failed", job.getId(), e);
+            job.markFailed("PROCESSING_FAILED", e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("ingestion.jobs.duration",
+                    "type", job.getType().name(), "outcome", outcome));
+        }
+
+        if (job.getStatus() == IngestionJob.Status.FAILED && job.getType() == IngestionJob.Type.PRODUCT_BASED_UPLOAD) {
+            try {
+                Files.deleteIfExists(upload.getPath());
+            } catch (IOException e) {
+                logger.warn("Could not delete staged upload {}: {}", upload.getPath(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,13 @@
+package com.stability.coareport.service;
+
+/**
+ * Steps of turning an uploaded CoA PDF into a preview or a stored report, in execution order.
+ */
+public enum IngestionStage {
+    LOAD,
+    PREFLIGHT,
+    STRIP,
+    HEADER_PARSE,
+    TABLE_PARSE,
+    PERSIST
+}
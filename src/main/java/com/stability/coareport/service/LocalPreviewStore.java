@@ -0,0 +1,283 @@
+package com.stability.coareport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stability.coareport.dto.ParsedPdfData;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Node-local {@link PreviewStore}: previews live on this node's heap and disk, so a submit has to
+ * reach the node that served the preview.
+ * <p>
+ * At most {@code preview.store.max-entries} previews, weighing at most
+ * {@code preview.store.max-weight-bytes} (their JSON size), are held on the heap. Beyond that the
+ * least recently used ones are spilled to JSON files under {@code temp_uploads/previews}, or dropped
+ * when spilling is off. Previews untouched for {@code preview.store.ttl-minutes} expire together
+ * with their staged PDF, and the sweeper also removes staged PDFs that no preview refers to.
+ */
+@Component
+@ConditionalOnProperty(name = "preview.store.type", havingValue = "local", matchIfMissing = true)
+public class LocalPreviewStore implements PreviewStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalPreviewStore.class);
+    private static final Path SPILL_DIR = PreviewFiles.TEMP_UPLOAD_DIR.resolve("previews");
+
+    private static final class Entry {
+        final String fileName;
+        final Path pdfPath;
+        long lastAccessMillis = System.currentTimeMillis();
+        // Kept until the spill file is written, so reads during the write still hit memory
+        ParsedPdfData data;
+        long weight;
+        // Chosen for eviction; no longer counted against the heap limits
+        boolean spilling;
+        // Set, and data cleared, once the spill file is complete
+        Path spillFile;
+
+        Entry(String fileName, Path pdfPath, ParsedPdfData data, long weight) {
+            this.fileName = fileName;
+            this.pdfPath = pdfPath;
+            this.data = data;
+            this.weight = weight;
+        }
+
+        boolean countsOnHeap() {
+            return data != null && !spilling;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int maxEntries;
+    private final long maxWeightBytes;
+    private final long ttlMillis;
+    private final boolean spillToDisk;
+    // Access order: the eldest entry is the least recently used one
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int inMemory;
+    private long weight;
+    // Makes every spill file name unique, so a stale write never overwrites a newer preview's file
+    private long spillSequence;
+
+    public LocalPreviewStore(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${preview.store.max-entries:200}") int maxEntries,
+                             @Value("${preview.store.max-weight-bytes:67108864}") long maxWeightBytes,
+                             @Value("${preview.store.ttl-minutes:120}") long ttlMinutes,
+                             @Value("${preview.store.spill-to-disk:true}") boolean spillToDisk) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxEntries = maxEntries;
+        this.maxWeightBytes = maxWeightBytes;
+        this.ttlMillis = ttlMinutes * 60_000;
+        this.spillToDisk = spillToDisk;
+
+        meterRegistry.gauge("preview.store.entries", this, s -> s.count(true));
+        meterRegistry.gauge("preview.store.spilled", this, s -> s.count(false));
+        meterRegistry.gauge("preview.store.weight.bytes", this, s -> s.currentWeight());
+    }
+
+    @Override
+    public void put(String tempFileId, String fileName, Path pdfPath, ParsedPdfData data) {
+        long entryWeight;
+        try {
+            entryWeight = objectMapper.writeValueAsBytes(data).length;
+        } catch (IOException e) {
+            entryWeight = 0;
+        }
+
+        Map<Path, Map.Entry<String, Entry>> toSpill = new LinkedHashMap<>();
+        Path replacedSpillFile = null;
+        synchronized (this) {
+            Entry previous = entries.put(tempFileId, new Entry(fileName, pdfPath, data, entryWeight));
+            if (previous != null) {
+                replacedSpillFile = previous.spillFile;
+            }
+            if (previous != null && previous.countsOnHeap()) {
+                inMemory--;
+                weight -= previous.weight;
+            }
+            inMemory++;
+            weight += entryWeight;
+
+            Iterator<Map.Entry<String, Entry>> eldestFirst = entries.entrySet().iterator();
+            while ((inMemory > maxEntries || weight > maxWeightBytes) && eldestFirst.hasNext()) {
+                Map.Entry<String, Entry> e = eldestFirst.next();
+                Entry entry = e.getValue();
+                if (!entry.countsOnHeap() || e.getKey().equals(tempFileId)) {
+                    continue;
+                }
+                String cause = inMemory > maxEntries ? "size" : "weight";
+                meterRegistry.counter("preview.store.evictions", "cause", cause).increment();
+                if (spillToDisk) {
+                    entry.spilling = true;
+                    toSpill.put(SPILL_DIR.resolve(e.getKey() + "-" + (++spillSequence) + ".json"),
+                            Map.entry(e.getKey(), entry));
+                } else {
+                    eldestFirst.remove();
+                    entry.data = null;
+                }
+                inMemory--;
+                weight -= entry.weight;
+            }
+        }
+
+        if (replacedSpillFile != null) {
+            PreviewFiles.deleteQuietly(replacedSpillFile);
+        }
+        // Written outside the lock; the entries keep their data until their file is complete
+        toSpill.forEach((file, e) -> spill(e.getKey(), e.getValue(), file));
+    }
+
+    @Override
+    public Optional<Preview> get(String tempFileId) {
+        Entry entry;
+        ParsedPdfData data;
+        Path spillFile;
+        synchronized (this) {
+            entry = entries.get(tempFileId);
+            if (entry == null) {
+                meterRegistry.counter("preview.store.misses").increment();
+                return Optional.empty();
+            }
+            entry.lastAccessMillis = System.currentTimeMillis();
+            data = entry.data;
+            spillFile = entry.spillFile;
+        }
+
+        if (data != null) {
+            meterRegistry.counter("preview.store.hits", "tier", "memory").increment();
+            return Optional.of(new Preview(entry.fileName, entry.pdfPath, data));
+        }
+        try {
+            data = objectMapper.readValue(spillFile.toFile(), ParsedPdfData.class);
+            meterRegistry.counter("preview.store.hits", "tier", "disk").increment();
+            return Optional.of(new Preview(entry.fileName, entry.pdfPath, data));
+        } catch (IOException e) {
+            logger.warn("Could not read spilled preview {}: {}", tempFileId, e.getMessage());
+            meterRegistry.counter("preview.store.misses").increment();
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public synchronized Optional<Path> localPdf(String tempFileId) {
+        Entry entry = entries.get(tempFileId);
+        return entry != null && Files.exists(entry.pdfPath) ? Optional.of(entry.pdfPath) : Optional.empty();
+    }
+
+    /**
+     * The staged PDF has been moved by the time a preview is submitted, so only a spilled copy needs
+     * deleting.
+     */
+    @Override
+    public void remove(String tempFileId) {
+        Path spillFile = null;
+        synchronized (this) {
+            Entry entry = entries.remove(tempFileId);
+            if (entry != null && entry.countsOnHeap()) {
+                inMemory--;
+                weight -= entry.weight;
+            }
+            if (entry != null) {
+                spillFile = entry.spillFile;
+            }
+        }
+        // A spill still in progress deletes its own file once it sees the entry is gone
+        if (spillFile != null) {
+            PreviewFiles.deleteQuietly(spillFile);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${preview.store.sweep-interval-ms:300000}")
+    public void sweep() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        List<Path> expiredSpillFiles = new ArrayList<>();
+        Map<String, Entry> expired = new HashMap<>();
+        Set<Path> live = new HashSet<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> e = it.next();
+                Entry entry = e.getValue();
+                if (entry.lastAccessMillis < cutoff) {
+                    expired.put(e.getKey(), entry);
+                    it.remove();
+                    if (entry.countsOnHeap()) {
+                        inMemory--;
+                        weight -= entry.weight;
+                    }
+                    if (entry.spillFile != null) {
+                        expiredSpillFiles.add(entry.spillFile);
+                    }
+                } else {
+                    live.add(entry.pdfPath.toAbsolutePath().normalize());
+                    if (entry.spillFile != null) {
+                        live.add(entry.spillFile.toAbsolutePath().normalize());
+                    }
+                }
+            }
+        }
+
+        expired.values().forEach(entry -> PreviewFiles.deleteQuietly(entry.pdfPath));
+        expiredSpillFiles.forEach(PreviewFiles::deleteQuietly);
+        if (!expired.isEmpty()) {
+            meterRegistry.counter("preview.store.evictions", "cause", "expired").increment(expired.size());
+        }
+
+        int orphans = PreviewFiles.deleteOrphans(PreviewFiles.TEMP_UPLOAD_DIR, live, cutoff)
+                + PreviewFiles.deleteOrphans(SPILL_DIR, live, cutoff);
+        if (!expired.isEmpty() || orphans > 0) {
+            logger.info("Preview sweep: {} expired previews, {} orphaned temp files deleted", expired.size(), orphans);
+        }
+    }
+
+    /**
+     * Writes an evicted preview to {@code file}, then drops its heap copy, provided the entry was
+     * not removed or replaced meanwhile; otherwise the file is deleted again.
+     */
+    private void spill(String tempFileId, Entry entry, Path file) {
+        boolean written;
+        try {
+            Files.createDirectories(SPILL_DIR);
+            objectMapper.writeValue(file.toFile(), entry.data);
+            written = true;
+        } catch (IOException e) {
+            logger.warn("Could not spill preview {} to disk, dropping it: {}", tempFileId, e.getMessage());
+            written = false;
+        }
+
+        boolean current;
+        synchronized (this) {
+            current = entries.get(tempFileId) == entry;
+            if (current && written) {
+                entry.spillFile = file;
+                entry.data = null;
+                entry.spilling = false;
+            } else if (current) {
+                entries.remove(tempFileId);
+            }
+        }
+        if (!current || !written) {
+            PreviewFiles.deleteQuietly(file);
+        }
+    }
+
+    private synchronized int count(boolean inMemoryOnly) {
+        return inMemoryOnly ? inMemory : entries.size() - inMemory;
+    }
+
+    private synchronized long currentWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,175 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.entity.Report;
+import com.stability.coareport.entity.TestResult;
+import com.stability.coareport.repository.OosDailyRollupRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains {@code oos_daily_rollups}: per product, test and report creation day, the number of
+ * test results and how many of them are OOS or OOS_JUSTIFIED. The OOS Pareto sums these rows
+ * instead of reading every report in its window.
+ * <p>
+ * Writers record their changes as deltas, applied with an upsert in their own transaction, so
+ * the rollups commit or roll back together with the results they count. A full rebuild runs at
+ * startup when the table is empty and on {@code oos.rollup.rebuild-cron} to correct any drift.
+ * <p>
+ * The upsert is {@code INSERT ... ON CONFLICT} on PostgreSQL and the standard {@code MERGE} on
+ * other databases (the H2 used by the tests); the rebuild query runs on both.
+ */
+@Service
+public class OosRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OosRollupService.class);
+
+    private static final String APPLY_DELTA_POSTGRES =
+            "INSERT INTO oos_daily_rollups (product_name, test_name, rollup_date, total_count, oos_count, " +
+            "oos_justified_count) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (product_name, rollup_date, test_name) DO UPDATE SET " +
+            "total_count = oos_daily_rollups.total_count + EXCLUDED.total_count, " +
+            "oos_count = oos_daily_rollups.oos_count + EXCLUDED.oos_count, " +
+            "oos_justified_count = oos_daily_rollups.oos_justified_count + EXCLUDED.oos_justified_count";
+
+    private static final String APPLY_DELTA_MERGE =
+            "MERGE INTO oos_daily_rollups t USING (VALUES (?, ?, ?, ?, ?, ?)) " +
+            "AS d (product_name, test_name, rollup_date, total_count, oos_count, oos_justified_count) " +
+            "ON t.product_name = d.product_name AND t.rollup_date = d.rollup_date AND t.test_name = d.test_name " +
+            "WHEN MATCHED THEN UPDATE SET total_count = t.total_count + d.total_count, " +
+            "oos_count = t.oos_count + d.oos_count, " +
+            "oos_justified_count = t.oos_justified_count + d.oos_justified_count " +
+            "WHEN NOT MATCHED THEN INSERT (product_name, test_name, rollup_date, total_count, oos_count, " +
+            "oos_justified_count) VALUES (d.product_name, d.test_name, d.rollup_date, d.total_count, " +
+            "d.oos_count, d.oos_justified_count)";
+
+    private static final String REBUILD =
+            "INSERT INTO oos_daily_rollups (product_name, test_name, rollup_date, total_count, oos_count, " +
+            "oos_justified_count) " +
+            "SELECT r.product_name, tr.test, CAST(r.created_at AS date), COUNT(*), " +
+            "SUM(CASE WHEN tr.oos_status = 'OOS' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN tr.oos_status = 'OOS_JUSTIFIED' THEN 1 ELSE 0 END) " +
+            "FROM test_results tr JOIN reports r ON r.id = tr.report_id " +
+            "WHERE r.product_name IS NOT NULL AND r.created_at IS NOT NULL " +
+            "GROUP BY r.product_name, tr.test, CAST(r.created_at AS date)";
+
+    /**
+     * Count changes for the test results of one report, by test name.
+     */
+    public static final class Changes {
+        // total, OOS, OOS_JUSTIFIED
+        private final Map<String, int[]> byTest = new LinkedHashMap<>();
+
+        public Changes added(TestResult testResult) {
+            int[] delta = delta(testResult.getTest());
+            delta[0]++;
+            count(delta, testResult.getOosStatus(), 1);
+            return this;
+        }
+
+        public Changes statusChanged(String test, String fromStatus, String toStatus) {
+            int[] delta = delta(test);
+            count(delta, fromStatus, -1);
+            count(delta, toStatus, 1);
+            return this;
+        }
+
+        private int[] delta(String test) {
+            return byTest.computeIfAbsent(test, t -> new int[3]);
+        }
+
+        private static void count(int[] delta, String status, int sign) {
+            if ("OOS".equals(status)) {
+                delta[1] += sign;
+            } else if ("OOS_JUSTIFIED".equals(status)) {
+                delta[2] += sign;
+            }
+        }
+    }
+
+    private final OosDailyRollupRepository oosDailyRollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean postgres;
+
+    public OosRollupService(OosDailyRollupRepository oosDailyRollupRepository,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            EntityManagerFactory entityManagerFactory) {
+        this.oosDailyRollupRepository = oosDailyRollupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.postgres = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+
+    /**
+     * Counts the test results of a newly saved report.
+     */
+    @Transactional
+    public void recordNewResults(Report report, Collection<TestResult> testResults) {
+        if (testResults == null || testResults.isEmpty()) {
+            return;
+        }
+        Changes changes = new Changes();
+        testResults.forEach(changes::added);
+        apply(report, changes);
+    }
+
+    @Transactional
+    public void apply(Report report, Changes changes) {
+        if (report.getProductName() == null || report.getCreatedAt() == null) {
+            return;
+        }
+        Date day = Date.valueOf(report.getCreatedAt().toLocalDate());
+        List<Object[]> rows = new ArrayList<>();
+        changes.byTest.forEach((test, delta) -> {
+            if (test != null && (delta[0] != 0 || delta[1] != 0 || delta[2] != 0)) {
+                rows.add(new Object[]{report.getProductName(), test, day, delta[0], delta[1], delta[2]});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(postgres ? APPLY_DELTA_POSTGRES : APPLY_DELTA_MERGE, rows);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (oosDailyRollupRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes all rollups from the test results. On PostgreSQL the table lock makes concurrent
+     * writers wait, so their deltas land on top of the rebuilt counts.
+     */
+    @Scheduled(cron = "${oos.rollup.rebuild-cron:0 30 2 * * *}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Integer rows = transactionTemplate.execute(status -> {
+            if (postgres) {
+                jdbcTemplate.execute("LOCK TABLE oos_daily_rollups IN EXCLUSIVE MODE");
+            }
+            jdbcTemplate.update("DELETE FROM oos_daily_rollups");
+            return jdbcTemplate.update(REBUILD);
+        });
+        logger.info("OOS rollups rebuilt: {} rows in {} ms", rows, System.currentTimeMillis() - start);
+    }
+}
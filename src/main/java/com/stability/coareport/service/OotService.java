@@ -8,6 +8,8 @@ import com.stability.coareport.dto.OosAnalysisResponse;
 import com.stability.coareport.dto.OosParetoResponse;
 import com.stability.coareport.entity.*;
 import com.stability.coareport.repository.*;
+import com.stability.coareport.util.ResultValues;
+import com.stability.coareport.util.SchedulePeriods;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -29,6 +32,8 @@ public class OotService {
     private final ReportRepository reportRepository;
     private final TestResultRepository testResultRepository;
     private final ProductRepository productRepository;
+    private final OosDailyRollupRepository oosDailyRollupRepository;
+    private final OosRollupService oosRollupService;
 
     @Transactional
     public OotConfigurationDto createOotConfiguration(OotConfigurationDto dto) {
@@ -153,10 +158,10 @@ public class OotService {
                 percentageThreshold = config.getPercentageThreshold();
             }
 
-            BigDecimal currentValue = extractNumericValue(testResult.getResult());
+            BigDecimal currentValue = testResult.numericResult();
             TestResult previousTestResult = previousTestResults.get(testResult.getTest());
             BigDecimal previousValue = previousTestResult != null ?
-                    extractNumericValue(previousTestResult.getResult()) : null;
+                    previousTestResult.numericResult() : null;
 
             BigDecimal percentageChange = null;
             if (currentValue != null && previousValue != null && previousValue.compareTo(BigDecimal.ZERO) != 0) {
@@ -336,23 +341,6 @@ public class OotService {
         }
     }
 
-    private BigDecimal extractNumericValue(String result) {
-        if (result == null || result.isEmpty()) {
-            return null;
-        }
-
-        try {
-            String cleaned = result.replaceAll("[^0-9.\\-]", "").trim();
-            if (!cleaned.isEmpty()) {
-                return new BigDecimal(cleaned);
-            }
-        } catch (NumberFormatException e) {
-            log.warn("Could not extract numeric value from: {}", result);
-        }
-
-        return null;
-    }
-
     private OotConfigurationDto mapToDto(ProductOotConfiguration config) {
         OotConfigurationDto dto = new OotConfigurationDto();
         dto.setId(config.getId());
@@ -392,14 +380,25 @@ public class OotService {
             throw new RuntimeException("No OOT configuration found for this product");
         }
 
-        List<Report> reports = reportRepository.findByProductNameAndBatchNo(
+        List<ReportRepository.TrendPoint> points = reportRepository.findTrendPointsByProductNameAndBatchNo(
                 product.getProductName(), batchNo);
 
-        if (reports.isEmpty()) {
+        if (points.isEmpty()) {
             throw new RuntimeException("No reports found for this product and batch");
         }
+        if (points.stream().anyMatch(p -> p.getSchedulePeriodRank() == null)) {
+            // Reports the backfill has not reached yet; the sort is stable, so results keep their order
+            points = points.stream()
+                    .sorted(Comparator.comparingInt((ReportRepository.TrendPoint p) ->
+                                    SchedulePeriods.rank(p.getSchedulePeriodRank(), p.getSchedulePeriod()))
+                            .thenComparing(ReportRepository.TrendPoint::getReportId))
+                    .collect(Collectors.toList());
+        }
 
-        String storageCondition = reports.get(0).getStorageCondition();
+        String storageCondition = points.stream()
+                .min(Comparator.comparing(ReportRepository.TrendPoint::getReportId))
+                .map(ReportRepository.TrendPoint::getStorageCondition)
+                .orElse(null);
 
         List<OotGraphsDataResponse.OotConfigForGraph> configList = ootConfigs.stream()
                 .map(config -> new OotGraphsDataResponse.OotConfigForGraph(
@@ -419,31 +418,19 @@ public class OotService {
         Map<String, List<OotGraphsDataResponse.PercentChangeData>> percentChanges = new HashMap<>();
 
         for (ProductOotConfiguration config : ootConfigs) {
-            List<TestResult> testResults = new ArrayList<>();
-            for (Report report : reports) {
-                List<TestResult> reportTests = testResultRepository.findByReportIdAndTestNameContainingIgnoreCase(
-                        report.getId(), config.getTestName());
-                testResults.addAll(reportTests);
-            }
-
-            testResults.sort(Comparator.comparing(tr -> {
-                Report r = reportRepository.findById(tr.getReport().getId()).orElse(null);
-                return r != null ? r.getSchedulePeriod() : "";
-            }));
-
-            List<OotGraphsDataResponse.TestTrendData> trendData = testResults.stream()
-                    .map(tr -> {
-                        Report r = reportRepository.findById(tr.getReport().getId()).orElse(null);
-                        BigDecimal value = extractNumericValue(tr.getResult());
-                        return new OotGraphsDataResponse.TestTrendData(
-                                r != null ? r.getSchedulePeriod() : "",
-                                value,
-                                tr.getOotStatus(),
-                                false,
-                                null,
-                                null
-                        );
-                    })
+            // Same match as the former per-report LIKE '%name%' lookup
+            String testName = config.getTestName() != null ? config.getTestName().toLowerCase(Locale.ROOT) : null;
+            List<OotGraphsDataResponse.TestTrendData> trendData = points.stream()
+                    .filter(p -> testName != null && p.getTest() != null
+                            && p.getTest().toLowerCase(Locale.ROOT).contains(testName))
+                    .map(p -> new OotGraphsDataResponse.TestTrendData(
+                            p.getSchedulePeriod() != null ? p.getSchedulePeriod() : "",
+                            ResultValues.valueOf(p.getResult(), p.getResultValue(), p.getResultQualifier()),
+                            p.getOotStatus(),
+                            false,
+                            null,
+                            null
+                    ))
                     .filter(td -> td.getValue() != null)
                     .collect(Collectors.toList());
 
@@ -509,6 +496,7 @@ public class OotService {
 
         List<TestResult> testResults = testResultRepository.findByReportId(reportId);
         List<OosAnalysisResponse.OosTestResult> oosResults = new ArrayList<>();
+        OosRollupService.Changes rollupChanges = new OosRollupService.Changes();
 
         int inSpecCount = 0;
         int warningCount = 0;
@@ -522,7 +510,7 @@ public class OotService {
                 continue;
             }
 
-            BigDecimal value = extractNumericValue(testResult.getResult());
+            BigDecimal value = testResult.numericResult();
             if (value == null) {
                 continue;
             }
@@ -556,6 +544,7 @@ public class OotService {
                 colorCode = "#4caf50";
             }
 
+            rollupChanges.statusChanged(testResult.getTest(), testResult.getOosStatus(), oosStatus);
             testResult.setOosStatus(oosStatus);
             testResult.setSpecDistancePercent(specDistancePercent);
             testResultRepository.save(testResult);
@@ -579,6 +568,8 @@ public class OotService {
             ));
         }
 
+        oosRollupService.apply(report, rollupChanges);
+
         int totalTests = oosResults.size();
         double oosRate = totalTests > 0 ? (double) oosCount / totalTests * 100 : 0;
 
@@ -600,48 +591,24 @@ public class OotService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-
-        List<Report> reports = reportRepository.findByProductName(product.getProductName());
-        reports = reports.stream()
-                .filter(r -> r.getCreatedAt().isAfter(startDate))
-                .collect(Collectors.toList());
-
-        Map<String, Integer> oosCountByTest = new HashMap<>();
-        Map<String, Integer> totalCountByTest = new HashMap<>();
-
-        for (Report report : reports) {
-            List<TestResult> testResults = testResultRepository.findByReportId(report.getId());
-
-            for (TestResult tr : testResults) {
-                String testName = tr.getTest();
-                totalCountByTest.put(testName, totalCountByTest.getOrDefault(testName, 0) + 1);
-
-                if ("OOS".equals(tr.getOosStatus()) || "OOS_JUSTIFIED".equals(tr.getOosStatus())) {
-                    oosCountByTest.put(testName, oosCountByTest.getOrDefault(testName, 0) + 1);
-                }
-            }
-        }
+        // Whole calendar days: today and the days - 1 before it
+        List<OosDailyRollupRepository.ParetoRow> rows = oosDailyRollupRepository.sumOosByTest(
+                product.getProductName(), LocalDate.now().minusDays(days - 1L));
 
         List<OosParetoResponse.ParetoItem> paretoItems = new ArrayList<>();
-        int totalOosCount = oosCountByTest.values().stream().mapToInt(Integer::intValue).sum();
-
-        List<Map.Entry<String, Integer>> sortedEntries = oosCountByTest.entrySet().stream()
-                .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
-                .collect(Collectors.toList());
+        int totalOosCount = rows.stream().mapToInt(row -> row.getOosCount().intValue()).sum();
 
         double cumulativeCount = 0;
-        for (Map.Entry<String, Integer> entry : sortedEntries) {
-            String testName = entry.getKey();
-            int oosCount = entry.getValue();
-            int totalCount = totalCountByTest.get(testName);
-            double oosRate = (double) oosCount / totalCount * 100;
+        for (OosDailyRollupRepository.ParetoRow row : rows) {
+            int oosCount = row.getOosCount().intValue();
+            int totalCount = row.getTotalCount().intValue();
+            double oosRate = totalCount > 0 ? (double) oosCount / totalCount * 100 : 0;
 
             cumulativeCount += oosCount;
             double cumulativePercent = (cumulativeCount / totalOosCount) * 100;
 
             paretoItems.add(new OosParetoResponse.ParetoItem(
-                    testName, oosCount, totalCount, oosRate, cumulativePercent
+                    row.getTestName(), oosCount, totalCount, oosRate, cumulativePercent
             ));
         }
 
@@ -0,0 +1,133 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.exception.PdfParseAbortedException;
+import com.stability.coareport.exception.PdfParseAbortedException.Reason;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time and memory budget of a single document, checked cooperatively whenever a page has been
+ * stripped or parsed.
+ * <p>
+ * The heap is shared, so the memory budget counts bytes allocated for the document (via
+ * {@link com.sun.management.ThreadMXBean}): everything the thread that started the parse allocates
+ * from then on, plus what each unit of work run on the shared page pool allocates between its
+ * start and end ({@link #track}). Pool workers move between documents, so they are only charged
+ * for the units they run for this one. The count includes short-lived garbage; it is a limit on
+ * the work spent on a document, not on its live heap.
+ */
+class ParseBudget implements ParseProgressListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParseBudget.class);
+    private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+
+    private final String documentName;
+    private final ParseProgressListener delegate;
+    private final long startNanos = System.nanoTime();
+    private final long deadlineNanos;
+    private final long timeoutMillis;
+    private final long maxAllocatedBytes;
+    private final MeterRegistry meterRegistry;
+    private final Thread owner = Thread.currentThread();
+    private final long ownerBaseline;
+    private volatile long ownerAllocated;
+    private final AtomicLong unitAllocated = new AtomicLong();
+    // Allocation counter of this thread when its current unit (or its last checkpoint in it) started
+    private final ThreadLocal<long[]> unitStart = new ThreadLocal<>();
+    private final AtomicBoolean aborted = new AtomicBoolean();
+
+    ParseBudget(String documentName, ParseProgressListener delegate, long timeoutMillis,
+                long maxAllocatedBytes, MeterRegistry meterRegistry) {
+        this.documentName = documentName;
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineNanos = timeoutMillis > 0 ? startNanos + timeoutMillis * 1_000_000 : Long.MAX_VALUE;
+        this.maxAllocatedBytes = THREADS != null ? maxAllocatedBytes : 0;
+        this.meterRegistry = meterRegistry;
+        this.ownerBaseline = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    @Override
+    public void stageStarted(IngestionStage stage) {
+        checkpoint();
+        delegate.stageStarted(stage);
+    }
+
+    @Override
+    public void pagesStripped(int done, int total) {
+        delegate.pagesStripped(done, total);
+        checkpoint();
+    }
+
+    @Override
+    public void checkpoint() {
+        if (System.nanoTime() > deadlineNanos) {
+            abort(Reason.TIMEOUT, "Parsing " + documentName + " exceeded the time limit of " + timeoutMillis + " ms");
+        }
+        if (maxAllocatedBytes > 0) {
+            long allocated = allocated();
+            if (allocated > maxAllocatedBytes) {
+                abort(Reason.MEMORY, "Parsing " + documentName + " exceeded the memory budget of "
+                        + maxAllocatedBytes + " bytes");
+            }
+        }
+        delegate.checkpoint();
+    }
+
+    @Override
+    public <T> T track(Work<T> work) throws IOException {
+        // The owner is counted throughout; a nested unit is part of the enclosing one
+        if (maxAllocatedBytes <= 0 || Thread.currentThread() == owner || unitStart.get() != null) {
+            return delegate.track(work);
+        }
+        long[] start = {THREADS.getCurrentThreadAllocatedBytes()};
+        unitStart.set(start);
+        try {
+            return delegate.track(work);
+        } finally {
+            unitStart.remove();
+            unitAllocated.addAndGet(THREADS.getCurrentThreadAllocatedBytes() - start[0]);
+        }
+    }
+
+    /**
+     * Brings the current thread's share up to date and returns the document's total.
+     */
+    private long allocated() {
+        long current = THREADS.getCurrentThreadAllocatedBytes();
+        if (Thread.currentThread() == owner) {
+            ownerAllocated = current - ownerBaseline;
+        } else {
+            long[] start = unitStart.get();
+            if (start != null) {
+                unitAllocated.addAndGet(current - start[0]);
+                start[0] = current;
+            }
+        }
+        return ownerAllocated + unitAllocated.get();
+    }
+
+    private void abort(Reason reason, String message) {
+        if (aborted.compareAndSet(false, true)) {
+            logger.warn("{} after {} ms", message, (System.nanoTime() - startNanos) / 1_000_000);
+            if (meterRegistry != null) {
+                meterRegistry.counter("pdf.parse.aborted", "reason", reason.name().toLowerCase()).increment();
+            }
+        }
+        throw new PdfParseAbortedException(reason, message);
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.stability.coareport.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-document time and memory limits for PDF parsing. Each parse gets its own {@link ParseBudget},
+ * which the extractor and parsers check at page boundaries.
+ */
+@Component
+public class ParseLimits {
+
+    private final long timeoutMillis;
+    private final long maxAllocatedBytes;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ParseLimits(@Value("${pdf.parse.timeout-ms:60000}") long timeoutMillis,
+                       @Value("${pdf.parse.max-allocated-bytes:4294967296}") long maxAllocatedBytes,
+                       MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeoutMillis;
+        this.maxAllocatedBytes = maxAllocatedBytes;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static ParseLimits unlimited() {
+        return new ParseLimits(0, 0, null);
+    }
+
+    /**
+     * Starts the budget for one document; the clock runs from this call. Progress callbacks are
+     * forwarded to {@code delegate}.
+     */
+    public ParseProgressListener budget(String documentName, ParseProgressListener delegate) {
+        if (timeoutMillis <= 0 && maxAllocatedBytes <= 0) {
+            return delegate;
+        }
+        return new ParseBudget(documentName, delegate, timeoutMillis, maxAllocatedBytes, meterRegistry);
+    }
+}
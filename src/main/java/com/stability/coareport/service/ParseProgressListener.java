@@ -0,0 +1,38 @@
+package com.stability.coareport.service;
+
+import java.io.IOException;
+
+/**
+ * Receives progress callbacks while a PDF is loaded, parsed and persisted. Callbacks may arrive
+ * from parsing worker threads, so implementations must be thread-safe.
+ */
+public interface ParseProgressListener {
+
+    ParseProgressListener NONE = new ParseProgressListener() {
+    };
+
+    @FunctionalInterface
+    interface Work<T> {
+        T run() throws IOException;
+    }
+
+    default void stageStarted(IngestionStage stage) {
+    }
+
+    default void pagesStripped(int done, int total) {
+    }
+
+    /**
+     * Called by the parsers at page boundaries. Implementations may abort the parse by throwing.
+     */
+    default void checkpoint() {
+    }
+
+    /**
+     * Runs one unit of the document's work (a page or page range) on a shared worker thread, so
+     * implementations can attribute what it costs to this document.
+     */
+    default <T> T track(Work<T> work) throws IOException {
+        return work.run();
+    }
+}
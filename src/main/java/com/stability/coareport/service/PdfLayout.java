@@ -0,0 +1,62 @@
+package com.stability.coareport.service;
+
+import java.util.List;
+
+/**
+ * Immutable page/row/cell model of a PDF, produced once per upload by {@link PdfLayoutExtractor}.
+ * All CoA extractors read this model instead of running their own PDFBox text stripping.
+ */
+public final class PdfLayout {
+
+    public static final class Cell {
+        public final float x;
+        public final String text;
+
+        public Cell(float x, String text) {
+            this.x = x;
+            this.text = text;
+        }
+    }
+
+    public static final class Row {
+        public final float y;
+        public final List<Cell> cells;
+
+        public Row(float y, List<Cell> cells) {
+            this.y = y;
+            this.cells = List.copyOf(cells);
+        }
+    }
+
+    public static final class Page {
+        public final List<Row> rows;
+
+        public Page(List<Row> rows) {
+            this.rows = List.copyOf(rows);
+        }
+    }
+
+    private final List<Page> pages;
+
+    public PdfLayout(List<Page> pages) {
+        this.pages = List.copyOf(pages);
+    }
+
+    public List<Page> getPages() {
+        return pages;
+    }
+
+    /**
+     * A layout without a single text cell comes from an image-only (scanned) PDF.
+     */
+    public boolean hasExtractableText() {
+        for (Page page : pages) {
+            for (Row row : page.rows) {
+                if (!row.cells.isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,393 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.service.PdfLayout.Cell;
+import com.stability.coareport.service.PdfLayout.Page;
+import com.stability.coareport.service.PdfLayout.Row;
+import com.stability.coareport.exception.InvalidPdfException;
+import com.stability.coareport.util.FileStorageUtil;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Runs the PDFBox text stripping once per document and turns it into a {@link PdfLayout}.
+ */
+@Service
+public class PdfLayoutExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfLayoutExtractor.class);
+    private static final long DEFAULT_MAX_MAIN_MEMORY_BYTES = 16L * 1024 * 1024;
+
+    /**
+     * Heap budget PDFBox may use for decoded streams per document; anything beyond spills to temp files.
+     */
+    @Value("${pdf.parse.max-main-memory-bytes:16777216}")
+    private long maxMainMemoryBytes = DEFAULT_MAX_MAIN_MEMORY_BYTES;
+
+    /**
+     * Pages probed for a text layer before extraction; 0 turns the scanned-document probe off.
+     */
+    @Value("${pdf.preflight.probe-pages:2}")
+    private int preflightProbePages = 2;
+
+    private final PdfPageExecutor pageExecutor;
+
+    public PdfLayoutExtractor() {
+        this(PdfPageExecutor.sequential());
+    }
+
+    @Autowired
+    public PdfLayoutExtractor(PdfPageExecutor pageExecutor) {
+        this.pageExecutor = pageExecutor;
+    }
+
+    /**
+     * Groups text positions into rows (by rounded y) and cells (split where the gap to the previous
+     * glyph exceeds half a space). {@code writeString} runs for every text chunk on every page, so
+     * the grouping works on primitive scratch buffers reused across calls instead of per-call maps,
+     * boxed comparators and string builders; only the resulting {@link Row}s and {@link Cell}s are
+     * allocated.
+     */
+    private static class PositionStripper extends PDFTextStripper {
+        private final List<Page> pages = new ArrayList<>();
+        private final Runnable onPageStripped;
+        private List<Row> currentRows;
+
+        // Scratch buffers, indexed by position within the current writeString call
+        private float[] xs = new float[64];
+        private float[] ys = new float[64];
+        private float[] rights = new float[64];
+        private float[] halfSpaces = new float[64];
+        private int[] lineOrdinals = new int[64];
+        private int[] order = new int[64];
+        private int[] distinctKeys = new int[8];
+        private char[] chars = new char[256];
+        private final List<Cell> cellBuffer = new ArrayList<>();
+
+        PositionStripper(Runnable onPageStripped) throws IOException {
+            super();
+            this.onPageStripped = onPageStripped;
+            setSortByPosition(true);
+        }
+
+        PdfLayout toLayout() {
+            flushPage();
+            return new PdfLayout(pages);
+        }
+
+        private void flushPage() {
+            if (currentRows != null) {
+                pages.add(new Page(currentRows));
+                currentRows = null;
+            }
+        }
+
+        @Override
+        protected void startPage(PDPage page) throws IOException {
+            flushPage();
+            currentRows = new ArrayList<>();
+            super.startPage(page);
+        }
+
+        @Override
+        protected void endPage(PDPage page) throws IOException {
+            super.endPage(page);
+            onPageStripped.run();
+        }
+
+        @Override
+        protected void writeString(String string, List<TextPosition> textPositions) throws IOException {
+            if (currentRows == null || textPositions.isEmpty()) return;
+
+            int n = textPositions.size();
+            ensureCapacity(n);
+
+            // Line ordinal = order in which each rounded y first appears in the chunk
+            int distinct = 0;
+            for (int i = 0; i < n; i++) {
+                TextPosition tp = textPositions.get(i);
+                float x = tp.getXDirAdj();
+                xs[i] = x;
+                ys[i] = tp.getYDirAdj();
+                rights[i] = x + tp.getWidth();
+                halfSpaces[i] = tp.getWidthOfSpace() / 2f;
+
+                int key = Math.round(ys[i]);
+                int ordinal = -1;
+                for (int k = distinct - 1; k >= 0; k--) {
+                    if (distinctKeys[k] == key) {
+                        ordinal = k;
+                        break;
+                    }
+                }
+                if (ordinal < 0) {
+                    if (distinct == distinctKeys.length) {
+                        distinctKeys = Arrays.copyOf(distinctKeys, distinct * 2);
+                    }
+                    distinctKeys[distinct] = key;
+                    ordinal = distinct++;
+                }
+                lineOrdinals[i] = ordinal;
+                order[i] = i;
+            }
+
+            // Stable insertion sort by (line, x); positions arrive nearly x-ordered, so this is ~linear
+            for (int i = 1; i < n; i++) {
+                int current = order[i];
+                int j = i - 1;
+                while (j >= 0 && comesAfter(order[j], current)) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = current;
+            }
+
+            int lineStart = 0;
+            while (lineStart < n) {
+                int lineEnd = lineStart + 1;
+                while (lineEnd < n && lineOrdinals[order[lineEnd]] == lineOrdinals[order[lineStart]]) {
+                    lineEnd++;
+                }
+                buildRow(textPositions, lineStart, lineEnd);
+                lineStart = lineEnd;
+            }
+        }
+
+        private boolean comesAfter(int a, int b) {
+            if (lineOrdinals[a] != lineOrdinals[b]) {
+                return lineOrdinals[a] > lineOrdinals[b];
+            }
+            return Float.compare(xs[a], xs[b]) > 0;
+        }
+
+        private void buildRow(List<TextPosition> textPositions, int from, int to) {
+            float y = ys[order[from]];
+            cellBuffer.clear();
+
+            int length = 0;
+            float wordStartX = -1f;
+            float lastRight = -1f;
+
+            for (int k = from; k < to; k++) {
+                int i = order[k];
+                float x = xs[i];
+
+                if (lastRight >= 0) {
+                    float gap = x - lastRight;
+                    if (gap > halfSpaces[i]) {
+                        if (length > 0) {
+                            cellBuffer.add(new Cell(wordStartX >= 0 ? wordStartX : x, trimmed(length)));
+                            length = 0;
+                        }
+                        wordStartX = x;
+                    }
+                } else {
+                    wordStartX = x;
+                }
+
+                String unicode = String.valueOf(textPositions.get(i).getUnicode());
+                int needed = length + unicode.length();
+                if (needed > chars.length) {
+                    chars = Arrays.copyOf(chars, Math.max(needed, chars.length * 2));
+                }
+                unicode.getChars(0, unicode.length(), chars, length);
+                length = needed;
+                lastRight = rights[i];
+            }
+
+            if (length > 0) {
+                cellBuffer.add(new Cell(wordStartX >= 0 ? wordStartX : 0f, trimmed(length)));
+            }
+
+            if (!cellBuffer.isEmpty()) currentRows.add(new Row(y, cellBuffer));
+        }
+
+        /**
+         * Same result as {@code new String(chars, 0, length).trim()} without the intermediate string.
+         */
+        private String trimmed(int length) {
+            int start = 0;
+            int end = length;
+            while (start < end && chars[start] <= ' ') start++;
+            while (end > start && chars[end - 1] <= ' ') end--;
+            return new String(chars, start, end - start);
+        }
+
+        private void ensureCapacity(int n) {
+            if (n <= xs.length) return;
+            int size = Math.max(n, xs.length * 2);
+            xs = new float[size];
+            ys = new float[size];
+            rights = new float[size];
+            halfSpaces = new float[size];
+            lineOrdinals = new int[size];
+            order = new int[size];
+        }
+    }
+
+    /**
+     * Spools the multipart part to a temp file and extracts from disk, so the upload is never
+     * copied onto the heap as a whole.
+     */
+    public PdfLayout extract(MultipartFile file) throws IOException {
+        return extract(file, ParseProgressListener.NONE);
+    }
+
+    public PdfLayout extract(MultipartFile file, ParseProgressListener listener) throws IOException {
+        Path tempFile = Files.createTempFile("coa-upload-", ".pdf");
+        try {
+            FileStorageUtil.saveMultipartFile(file, tempFile);
+            return extract(tempFile, listener);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    public PdfLayout extract(File pdfFile) throws IOException {
+        return extract(pdfFile.toPath());
+    }
+
+    /**
+     * Large documents are split into page ranges that are stripped concurrently, each from its own
+     * {@link PDDocument} since PDFBox documents are not thread-safe. Pages are concatenated in
+     * document order, so the layout is identical to a sequential extraction.
+     * <p>
+     * {@link PdfPreflight} runs first: non-PDFs, damaged or password-protected files and documents
+     * without a text layer on their first pages fail before any page is stripped.
+     */
+    public PdfLayout extract(Path pdfPath) throws IOException {
+        return extract(pdfPath, ParseProgressListener.NONE);
+    }
+
+    public PdfLayout extract(Path pdfPath, ParseProgressListener listener) throws IOException {
+        listener.stageStarted(IngestionStage.LOAD);
+        PdfPreflight.checkHeader(pdfPath);
+        int pageCount;
+        try (PDDocument document = open(pdfPath)) {
+            listener.stageStarted(IngestionStage.PREFLIGHT);
+            PdfPreflight.checkTextLayer(document, preflightProbePages);
+            pageCount = document.getNumberOfPages();
+            if (!pageExecutor.isParallel(pageCount)) {
+                listener.stageStarted(IngestionStage.STRIP);
+                return extract(document, listener);
+            }
+        }
+
+        listener.stageStarted(IngestionStage.STRIP);
+        long start = System.nanoTime();
+        int chunkCount = pageExecutor.chunkCount(pageCount);
+        AtomicInteger pagesStripped = new AtomicInteger();
+        Runnable onPageStripped = () -> listener.pagesStripped(pagesStripped.incrementAndGet(), pageCount);
+        List<List<Page>> chunks = pageExecutor.map(chunkCount, chunk -> {
+            int firstPage = chunk * pageCount / chunkCount + 1;
+            int lastPage = (chunk + 1) * pageCount / chunkCount;
+            try (PDDocument document = load(pdfPath)) {
+                return strip(document, firstPage, lastPage, onPageStripped).getPages();
+            }
+        }, listener);
+
+        List<Page> pages = new ArrayList<>(pageCount);
+        chunks.forEach(pages::addAll);
+        PdfLayout layout = new PdfLayout(pages);
+        logger.info("Extracted layout of {} pages in {} chunks in {} ms",
+                pages.size(), chunkCount, (System.nanoTime() - start) / 1_000_000);
+        return layout;
+    }
+
+    /**
+     * Strips pages one at a time from the start of the document and stops after the first page
+     * {@code isLastNeeded} accepts, or after {@code maxPages}. For callers that only need what is
+     * printed above the test-result table.
+     */
+    public PdfLayout extractLeadingPages(Path pdfPath, Predicate<Page> isLastNeeded, int maxPages,
+                                         ParseProgressListener listener) throws IOException {
+        long start = System.nanoTime();
+        PdfPreflight.checkHeader(pdfPath);
+        try (PDDocument document = open(pdfPath)) {
+            PdfPreflight.checkTextLayer(document, preflightProbePages);
+            int pageCount = document.getNumberOfPages();
+            int lastPage = Math.min(Math.max(1, maxPages), pageCount);
+
+            List<Page> pages = new ArrayList<>(lastPage);
+            for (int p = 1; p <= lastPage; p++) {
+                int done = p;
+                Page page = strip(document, p, p, () -> listener.pagesStripped(done, lastPage)).getPages().get(0);
+                pages.add(page);
+                if (isLastNeeded.test(page)) {
+                    break;
+                }
+            }
+            logger.info("Extracted leading {} of {} pages in {} ms",
+                    pages.size(), pageCount, (System.nanoTime() - start) / 1_000_000);
+            return new PdfLayout(pages);
+        }
+    }
+
+    /**
+     * Opens the PDF through a buffered random-access reader with a bounded main-memory stream cache.
+     */
+    public PDDocument load(Path pdfPath) throws IOException {
+        return Loader.loadPDF(new RandomAccessReadBufferedFile(pdfPath.toFile()),
+                MemoryUsageSetting.setupMixed(maxMainMemoryBytes).streamCache);
+    }
+
+    /**
+     * {@link #load} for user-supplied files: password-protected and unparseable documents are
+     * reported as {@link InvalidPdfException} rather than a generic I/O failure.
+     */
+    private PDDocument open(Path pdfPath) throws IOException {
+        try {
+            return load(pdfPath);
+        } catch (InvalidPasswordException e) {
+            throw new InvalidPdfException("The PDF is password protected and cannot be read.", e);
+        } catch (IOException e) {
+            if (!Files.isReadable(pdfPath)) {
+                throw e;
+            }
+            throw new InvalidPdfException("The PDF is damaged or not a valid PDF document: " + e.getMessage(), e);
+        }
+    }
+
+    public PdfLayout extract(PDDocument document) throws IOException {
+        return extract(document, ParseProgressListener.NONE);
+    }
+
+    private PdfLayout extract(PDDocument document, ParseProgressListener listener) throws IOException {
+        long start = System.nanoTime();
+        int pageCount = document.getNumberOfPages();
+        AtomicInteger pagesStripped = new AtomicInteger();
+        PdfLayout layout = strip(document, 1, Integer.MAX_VALUE,
+                () -> listener.pagesStripped(pagesStripped.incrementAndGet(), pageCount));
+        logger.info("Extracted layout of {} pages in {} ms",
+                layout.getPages().size(), (System.nanoTime() - start) / 1_000_000);
+        return layout;
+    }
+
+    private PdfLayout strip(PDDocument document, int firstPage, int lastPage,
+                            Runnable onPageStripped) throws IOException {
+        PositionStripper stripper = new PositionStripper(onPageStripped);
+        stripper.setStartPage(firstPage);
+        stripper.setEndPage(lastPage);
+        stripper.getText(document);
+        return stripper.toLayout();
+    }
+}
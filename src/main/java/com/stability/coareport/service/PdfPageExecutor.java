@@ -0,0 +1,128 @@
+package com.stability.coareport.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs per-page (or per-page-range) PDF work on a dedicated {@link ForkJoinPool}.
+ * Results are always returned in index order, so callers can merge them exactly as a sequential
+ * loop over the pages would.
+ */
+@Component
+public class PdfPageExecutor {
+
+    @FunctionalInterface
+    public interface IndexedTask<T> {
+        T apply(int index) throws IOException;
+    }
+
+    private final boolean parallelEnabled;
+    private final int minPages;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public PdfPageExecutor(@Value("${pdf.parse.parallel.enabled:true}") boolean parallelEnabled,
+                           @Value("${pdf.parse.parallel.min-pages:8}") int minPages,
+                           @Value("${pdf.parse.parallelism:0}") int parallelism) {
+        this.parallelEnabled = parallelEnabled;
+        this.minPages = Math.max(2, minPages);
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = parallelEnabled && threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    public static PdfPageExecutor sequential() {
+        return new PdfPageExecutor(false, Integer.MAX_VALUE, 1);
+    }
+
+    public boolean isParallel(int pageCount) {
+        return pool != null && pageCount >= minPages;
+    }
+
+    /**
+     * Number of page ranges a document of {@code pageCount} pages is split into; each range
+     * should carry enough pages to amortise opening its own copy of the document.
+     */
+    public int chunkCount(int pageCount) {
+        if (!isParallel(pageCount)) {
+            return 1;
+        }
+        return Math.max(1, Math.min(pool.getParallelism(), pageCount / (minPages / 2)));
+    }
+
+    /**
+     * Applies {@code task} to every index in {@code [0, count)} and returns the results in index
+     * order. Callers decide via {@link #isParallel(int)} whether a document is worth fanning out.
+     */
+    public <T> List<T> map(int count, IndexedTask<T> task) throws IOException {
+        if (pool == null || count <= 1) {
+            return runSequential(0, count, task);
+        }
+        try {
+            return pool.invoke(new RangeTask<>(0, count, task));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Like {@link #map(int, IndexedTask)}, with each task run as a unit of {@code listener}'s
+     * document (see {@link ParseProgressListener#track}).
+     */
+    public <T> List<T> map(int count, IndexedTask<T> task, ParseProgressListener listener) throws IOException {
+        return map(count, index -> listener.track(() -> task.apply(index)));
+    }
+
+    private static <T> List<T> runSequential(int from, int to, IndexedTask<T> task) throws IOException {
+        List<T> results = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            results.add(task.apply(i));
+        }
+        return results;
+    }
+
+    private static class RangeTask<T> extends RecursiveTask<List<T>> {
+        private final int from;
+        private final int to;
+        private final IndexedTask<T> task;
+
+        RangeTask(int from, int to, IndexedTask<T> task) {
+            this.from = from;
+            this.to = to;
+            this.task = task;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from <= 1) {
+                try {
+                    return runSequential(from, to, task);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int mid = (from + to) >>> 1;
+            RangeTask<T> left = new RangeTask<>(from, mid, task);
+            RangeTask<T> right = new RangeTask<>(mid, to, task);
+            right.fork();
+            List<T> results = left.compute();
+            results.addAll(right.join());
+            return results;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.stability.coareport.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stability.coareport.dto.ParsedPdfData;
+import com.stability.coareport.dto.TestResultDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse results keyed by the SHA-256 of the PDF content, so re-uploads of the same CoA skip PDFBox.
+ * Entries live in a size-bounded LRU map and, when {@code pdf.parse.cache.disk-dir} is set, in a
+ * JSON file per entry that survives restarts. Values are stored serialized and handed out as fresh
+ * copies, so callers are free to mutate what they get back.
+ * <p>
+ * The disk tier is bounded by {@code pdf.parse.cache.disk-max-bytes} and {@code disk-max-files}:
+ * a disk hit refreshes the file's modification time, and {@link #sweepDisk()} deletes the least
+ * recently used files beyond either cap, files older than {@code disk-ttl-hours}, and files written
+ * by other {@link #PARSER_VERSION}s, which are never read again.
+ */
+@Service
+public class PdfParseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfParseCache.class);
+
+    /**
+     * Part of every cache key; bump whenever a parser change alters its output so stale entries
+     * (including those on disk) are no longer served.
+     */
+    public static final String PARSER_VERSION = "1";
+
+    private static final String KIND_PARSED_DATA = "coa";
+    private static final String KIND_TEST_RESULTS = "tests";
+    private static final String DISK_SUFFIX = "-v" + PARSER_VERSION + ".json";
+    /** Leftover temp files of interrupted writes older than this are removed by the sweep. */
+    private static final long STALE_TEMP_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private record DiskFile(Path path, long size, long lastModifiedMillis) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int maxEntries;
+    private final Path diskDir;
+    private final long diskMaxBytes;
+    private final int diskMaxFiles;
+    private final long diskTtlMillis;
+    private final Map<String, byte[]> entries;
+
+    public PdfParseCache(ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${pdf.parse.cache.max-entries:256}") int maxEntries,
+                         @Value("${pdf.parse.cache.disk-dir:}") String diskDir,
+                         @Value("${pdf.parse.cache.disk-max-bytes:536870912}") long diskMaxBytes,
+                         @Value("${pdf.parse.cache.disk-max-files:10000}") int diskMaxFiles,
+                         @Value("${pdf.parse.cache.disk-ttl-hours:720}") long diskTtlHours) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxEntries = maxEntries;
+        this.diskDir = diskDir == null || diskDir.isBlank() ? null : Paths.get(diskDir);
+        this.diskMaxBytes = diskMaxBytes;
+        this.diskMaxFiles = diskMaxFiles;
+        this.diskTtlMillis = TimeUnit.HOURS.toMillis(diskTtlHours);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > PdfParseCache.this.maxEntries;
+            }
+        };
+        meterRegistry.gauge("pdf.parse.cache.entries", entries, m -> {
+            synchronized (m) {
+                return m.size();
+            }
+        });
+    }
+
+    public Optional<ParsedPdfData> getParsedData(String contentHash) {
+        return get(key(contentHash, KIND_PARSED_DATA), new TypeReference<ParsedPdfData>() {});
+    }
+
+    public void putParsedData(String contentHash, ParsedPdfData parsedData) {
+        put(key(contentHash, KIND_PARSED_DATA), parsedData);
+    }
+
+    public Optional<List<TestResultDto>> getTestResults(String contentHash) {
+        return get(key(contentHash, KIND_TEST_RESULTS), new TypeReference<List<TestResultDto>>() {});
+    }
+
+    public void putTestResults(String contentHash, List<TestResultDto> testResults) {
+        put(key(contentHash, KIND_TEST_RESULTS), testResults);
+    }
+
+    private String key(String contentHash, String kind) {
+        return contentHash + "-" + kind + "-v" + PARSER_VERSION;
+    }
+
+    private <T> Optional<T> get(String key, TypeReference<T> type) {
+        if (maxEntries <= 0) {
+            return Optional.empty();
+        }
+
+        byte[] json;
+        synchronized (entries) {
+            json = entries.get(key);
+        }
+        String tier = "memory";
+
+        if (json == null && diskDir != null) {
+            json = readFromDisk(key);
+            if (json != null) {
+                tier = "disk";
+                synchronized (entries) {
+                    entries.put(key, json);
+                }
+            }
+        }
+
+        if (json == null) {
+            meterRegistry.counter("pdf.parse.cache.misses").increment();
+            return Optional.empty();
+        }
+
+        try {
+            T value = objectMapper.readValue(json, type);
+            meterRegistry.counter("pdf.parse.cache.hits", "tier", tier).increment();
+            logger.info("Parse cache hit ({}) for {}", tier, key);
+            return Optional.of(value);
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable parse cache entry {}: {}", key, e.getMessage());
+            evict(key);
+            meterRegistry.counter("pdf.parse.cache.misses").increment();
+            return Optional.empty();
+        }
+    }
+
+    private void put(String key, Object value) {
+        if (maxEntries <= 0 || value == null) {
+            return;
+        }
+
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            logger.warn("Could not serialize parse result for {}: {}", key, e.getMessage());
+            return;
+        }
+
+        synchronized (entries) {
+            entries.put(key, json);
+        }
+        if (diskDir != null) {
+            writeToDisk(key, json);
+        }
+    }
+
+    private void evict(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+        if (diskDir != null) {
+            try {
+                Files.deleteIfExists(diskDir.resolve(key + ".json"));
+            } catch (IOException e) {
+                logger.warn("Could not delete parse cache file for {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private byte[] readFromDisk(String key) {
+        Path file = diskDir.resolve(key + ".json");
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            byte[] json = Files.readAllBytes(file);
+            // The modification time is the recency the sweep evicts by
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return json;
+        } catch (IOException e) {
+            logger.warn("Could not read parse cache file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] json) {
+        try {
+            Files.createDirectories(diskDir);
+            Path tmp = Files.createTempFile(diskDir, key, ".tmp");
+            Files.write(tmp, json);
+            Files.move(tmp, diskDir.resolve(key + ".json"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write parse cache file for {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Keeps the disk tier within its bounds: drops other parser versions, expired files and stale
+     * temp files, then the least recently used files until both caps hold.
+     */
+    @Scheduled(fixedDelayString = "${pdf.parse.cache.disk-sweep-interval-ms:3600000}")
+    public void sweepDisk() {
+        if (diskDir == null || !Files.isDirectory(diskDir)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<DiskFile> current = new ArrayList<>();
+        int deleted = 0;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(diskDir)) {
+            for (Path file : files) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    continue; // removed concurrently
+                }
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                String name = file.getFileName().toString();
+                long lastModified = attributes.lastModifiedTime().toMillis();
+                boolean obsolete = name.endsWith(".json")
+                        ? !name.endsWith(DISK_SUFFIX) || (diskTtlMillis > 0 && lastModified < now - diskTtlMillis)
+                        : name.endsWith(".tmp") && lastModified < now - STALE_TEMP_MILLIS;
+                if (obsolete) {
+                    deleted += deleteDiskFile(file);
+                } else if (name.endsWith(".json")) {
+                    current.add(new DiskFile(file, attributes.size(), lastModified));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not sweep parse cache directory {}: {}", diskDir, e.getMessage());
+            return;
+        }
+
+        long bytes = current.stream().mapToLong(DiskFile::size).sum();
+        int count = current.size();
+        current.sort(Comparator.comparingLong(DiskFile::lastModifiedMillis));
+        for (DiskFile file : current) {
+            boolean overFiles = diskMaxFiles > 0 && count > diskMaxFiles;
+            boolean overBytes = diskMaxBytes > 0 && bytes > diskMaxBytes;
+            if (!overFiles && !overBytes) {
+                break;
+            }
+            deleted += deleteDiskFile(file.path());
+            count--;
+            bytes -= file.size();
+        }
+
+        if (deleted > 0) {
+            meterRegistry.counter("pdf.parse.cache.disk.evictions").increment(deleted);
+            logger.info("Parse cache sweep removed {} files; {} files, {} bytes remain", deleted, count, bytes);
+        }
+    }
+
+    private int deleteDiskFile(Path file) {
+        try {
+            return Files.deleteIfExists(file) ? 1 : 0;
+        } catch (IOException e) {
+            logger.warn("Could not delete parse cache file {}: {}", file, e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -3,16 +3,19 @@ package com.stability.coareport.service;
 import com.stability.coareport.dto.ParsedPdfData;
 import com.stability.coareport.dto.TestResultDto;
 import com.stability.coareport.exception.ScannedPdfNotSupportedException;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.pdfbox.text.TextPosition;
+import com.stability.coareport.service.PdfLayout.Cell;
+import com.stability.coareport.service.PdfLayout.Page;
+import com.stability.coareport.service.PdfLayout.Row;
+import com.stability.coareport.util.CoaPatterns;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -24,156 +27,131 @@ public class PdfParserService {
     private static final Logger logger = LoggerFactory.getLogger(PdfParserService.class);
     private static final boolean KEEP_PARENT_HEADERS = true;
 
-    static class Cell {
-        final float x;
-        final String text;
-        Cell(float x, String text) { this.x = x; this.text = text; }
+    /**
+     * Upper bound on pages stripped by {@link #parseHeader} when no test-result table header shows up.
+     */
+    @Value("${pdf.parse.header-only.max-pages:3}")
+    private int headerOnlyMaxPages = 3;
+
+    private final PdfLayoutExtractor layoutExtractor;
+    private final PdfPageExecutor pageExecutor;
+    private final ParseLimits parseLimits;
+
+    public PdfParserService(PdfLayoutExtractor layoutExtractor, PdfPageExecutor pageExecutor) {
+        this(layoutExtractor, pageExecutor, ParseLimits.unlimited());
     }
 
-    static class Row {
-        final float y;
-        final List<Cell> cells = new ArrayList<>();
-        Row(float y) { this.y = y; }
+    @Autowired
+    public PdfParserService(PdfLayoutExtractor layoutExtractor, PdfPageExecutor pageExecutor, ParseLimits parseLimits) {
+        this.layoutExtractor = layoutExtractor;
+        this.pageExecutor = pageExecutor;
+        this.parseLimits = parseLimits;
     }
 
-    static class PageText {
-        final List<Row> rows = new ArrayList<>();
+    public ParsedPdfData parsePdf(MultipartFile file) throws IOException {
+        ParseProgressListener budget = parseLimits.budget(file.getOriginalFilename(), ParseProgressListener.NONE);
+        return parse(layoutExtractor.extract(file, budget), budget);
     }
 
-    private static class PositionStripper extends PDFTextStripper {
-        private final List<PageText> pages = new ArrayList<>();
-        private PageText currentPage;
+    /**
+     * Extracts and parses a PDF on disk within the configured {@link ParseLimits}; a document that
+     * runs over them fails with {@link com.stability.coareport.exception.PdfParseAbortedException}.
+     */
+    public ParsedPdfData parseDocument(Path pdfPath, ParseProgressListener listener) throws IOException {
+        ParseProgressListener budget = parseLimits.budget(String.valueOf(pdfPath.getFileName()), listener);
+        return parse(layoutExtractor.extract(pdfPath, budget), budget);
+    }
 
-        PositionStripper() throws IOException {
-            super();
-            setSortByPosition(true);
+    /**
+     * Header-only mode: fills the first-table fields (product, batch, AR No, storage condition,
+     * schedule period, ...) without parsing the test results. Extraction stops after the page that
+     * carries the test-result table header, which is normally page 1.
+     */
+    public ParsedPdfData parseHeader(Path pdfPath) throws IOException {
+        ParseProgressListener budget = parseLimits.budget(String.valueOf(pdfPath.getFileName()), ParseProgressListener.NONE);
+        PdfLayout layout = layoutExtractor.extractLeadingPages(pdfPath,
+                page -> findSecondTableHeader(page.rows) >= 0, headerOnlyMaxPages, budget);
+
+        if (!layout.hasExtractableText()) {
+            throw new ScannedPdfNotSupportedException(PdfPreflight.SCANNED_MESSAGE);
         }
 
-        List<PageText> getPages() { return pages; }
-
-        @Override
-        protected void startPage(org.apache.pdfbox.pdmodel.PDPage page) throws IOException {
-            currentPage = new PageText();
-            pages.add(currentPage);
-            super.startPage(page);
+        LinkedHashMap<String, String> firstTable = new LinkedHashMap<>();
+        for (Page page : layout.getPages()) {
+            if (!firstTable.isEmpty()) break;
+            parseFirstTable(page, firstTable);
         }
 
-        @Override
-        protected void writeString(String string, List<TextPosition> textPositions) throws IOException {
-            if (currentPage == null || textPositions.isEmpty()) return;
+        ParsedPdfData parsedData = new ParsedPdfData();
+        mapFirstTableToParsedData(firstTable, parsedData);
+        parsedData.setTestResults(new ArrayList<>());
+        return parsedData;
+    }
 
-            Map<Integer, List<TextPosition>> lineBuckets = new LinkedHashMap<>();
-            for (TextPosition tp : textPositions) {
-                int key = Math.round(tp.getYDirAdj());
-                lineBuckets.computeIfAbsent(key, k -> new ArrayList<>()).add(tp);
-            }
+    public ParsedPdfData parse(PdfLayout layout) throws IOException {
+        return parse(layout, ParseProgressListener.NONE);
+    }
 
-            for (List<TextPosition> line : lineBuckets.values()) {
-                line.sort(Comparator.comparing(TextPosition::getXDirAdj));
-                float y = line.get(0).getYDirAdj();
-                Row row = new Row(y);
-
-                StringBuilder word = new StringBuilder();
-                float wordStartX = -1f;
-                float lastRight = -1f;
-
-                for (TextPosition tp : line) {
-                    float x = tp.getXDirAdj();
-                    float right = x + tp.getWidth();
-                    String ch = tp.getUnicode();
-
-                    if (lastRight >= 0) {
-                        float gap = x - lastRight;
-                        if (gap > tp.getWidthOfSpace() / 2.0) {
-                            if (word.length() > 0) {
-                                row.cells.add(new Cell(wordStartX >= 0 ? wordStartX : x, word.toString().trim()));
-                                word.setLength(0);
-                            }
-                            wordStartX = x;
-                        }
-                    } else {
-                        wordStartX = x;
-                    }
+    public ParsedPdfData parse(PdfLayout layout, ParseProgressListener listener) throws IOException {
+        List<Page> pages = layout.getPages();
 
-                    word.append(ch);
-                    lastRight = right;
-                }
+        if (pages.isEmpty() || !layout.hasExtractableText()) {
+            logger.warn("Scanned PDF detected: No extractable text found");
+            throw new ScannedPdfNotSupportedException(
+                    "This PDF appears to be a scanned document without extractable text. " +
+                            "Please upload a digitally generated PDF report instead. " +
+                            "Scanned PDFs are not currently supported."
+            );
+        }
 
-                if (word.length() > 0) {
-                    row.cells.add(new Cell(wordStartX >= 0 ? wordStartX : 0f, word.toString().trim()));
-                }
+        ParsedPdfData parsedData = new ParsedPdfData();
+        LinkedHashMap<String, String> firstTable = new LinkedHashMap<>();
 
-                if (!row.cells.isEmpty()) currentPage.rows.add(row);
-            }
+        listener.stageStarted(IngestionStage.HEADER_PARSE);
+        for (Page page : pages) {
+            if (!firstTable.isEmpty()) break;
+            listener.checkpoint();
+            parseFirstTable(page, firstTable);
         }
-    }
 
-    public ParsedPdfData parsePdf(MultipartFile file) throws IOException {
-        try (PDDocument document = Loader.loadPDF(file.getBytes())) {
-            PositionStripper stripper = new PositionStripper();
-            stripper.getText(document);
-
-            List<PageText> pages = stripper.getPages();
-
-            if (pages.isEmpty() || isScannedPdf(pages)) {
-                logger.warn("Scanned PDF detected: No extractable text found");
-                throw new ScannedPdfNotSupportedException(
-                        "This PDF appears to be a scanned document without extractable text. " +
-                                "Please upload a digitally generated PDF report instead. " +
-                                "Scanned PDFs are not currently supported."
-                );
-            }
+        listener.stageStarted(IngestionStage.TABLE_PARSE);
+        // Second-table rows never span a page boundary, so pages are parsed independently and
+        // concatenated in page order, which keeps the S.No order of the document.
+        List<List<TestResultDto>> perPage = pageExecutor.isParallel(pages.size())
+                ? pageExecutor.map(pages.size(), i -> parseSecondTable(pages.get(i), listener), listener)
+                : pages.stream().map(page -> parseSecondTable(page, listener)).collect(Collectors.toList());
 
-            ParsedPdfData parsedData = new ParsedPdfData();
-            LinkedHashMap<String, String> firstTable = new LinkedHashMap<>();
-            LinkedHashMap<String, TestResultDto> secondTable = new LinkedHashMap<>();
+        List<TestResultDto> testResults = new ArrayList<>();
+        perPage.forEach(testResults::addAll);
 
-            for (PageText page : pages) {
-                parsePage(page, firstTable, secondTable);
-            }
+        mapFirstTableToParsedData(firstTable, parsedData);
+        parsedData.setTestResults(testResults);
 
-            mapFirstTableToParsedData(firstTable, parsedData);
-            parsedData.setTestResults(new ArrayList<>(secondTable.values()));
-
-            return parsedData;
-        }
+        return parsedData;
     }
 
-    private boolean isScannedPdf(List<PageText> pages) {
-        if (pages.isEmpty()) {
-            return true;
-        }
-
-        int totalCells = 0;
-        for (PageText page : pages) {
-            for (Row row : page.rows) {
-                totalCells += row.cells.size();
-            }
-        }
-
-        return totalCells == 0;
+    private List<TestResultDto> parseSecondTable(Page page, ParseProgressListener listener) {
+        listener.checkpoint();
+        LinkedHashMap<String, TestResultDto> secondTable = new LinkedHashMap<>();
+        parseSecondTableRows(page.rows, secondTable);
+        return new ArrayList<>(secondTable.values());
     }
 
-    private void parsePage(PageText page, LinkedHashMap<String, String> firstTableOut,
-                           LinkedHashMap<String, TestResultDto> secondTableOut) {
+    private void parseFirstTable(Page page, LinkedHashMap<String, String> firstTableOut) {
         int headerIdx = findSecondTableHeader(page.rows);
 
-        if (firstTableOut.isEmpty()) {
-            int endIdx = (headerIdx >= 0) ? headerIdx : page.rows.size();
-            List<String> rawLines = page.rows.subList(0, endIdx).stream()
-                    .map(r -> r.cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).trim())
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.toList());
-            List<String> mergedLines = mergeMultilineFields(rawLines);
-            logger.info("=== MERGED LINES FOR HEADER PARSING (Total: {}) ===", mergedLines.size());
-            for (int i = 0; i < Math.min(mergedLines.size(), 40); i++) {
-                logger.info("Line {}: {}", i, mergedLines.get(i));
-            }
-            logger.info("=== END MERGED LINES ===");
-            parseFirstTableDeterministic(mergedLines, firstTableOut);
+        int endIdx = (headerIdx >= 0) ? headerIdx : page.rows.size();
+        List<String> rawLines = page.rows.subList(0, endIdx).stream()
+                .map(r -> r.cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).trim())
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+        List<String> mergedLines = mergeMultilineFields(rawLines);
+        logger.info("=== MERGED LINES FOR HEADER PARSING (Total: {}) ===", mergedLines.size());
+        for (int i = 0; i < Math.min(mergedLines.size(), 40); i++) {
+            logger.info("Line {}: {}", i, mergedLines.get(i));
         }
-
-        parseSecondTableRows(page.rows, secondTableOut);
+        logger.info("=== END MERGED LINES ===");
+        parseFirstTableDeterministic(mergedLines, firstTableOut);
     }
 
     private List<String> mergeMultilineFields(List<String> lines) {
@@ -381,7 +359,7 @@ public class PdfParserService {
 
             if (currentLine.equals("vials") && !merged.isEmpty()) {
                 String prevLine = merged.get(merged.size() - 1);
-                if (prevLine.matches(".*\\d+$")) {
+                if (CoaPatterns.ENDS_WITH_DIGIT.matcher(prevLine).find()) {
                     merged.set(merged.size() - 1, prevLine + " vials");
                     continue;
                 }
@@ -389,7 +367,7 @@ public class PdfParserService {
 
             if (currentLine.startsWith("vials ") && !merged.isEmpty()) {
                 String prevLine = merged.get(merged.size() - 1);
-                if (prevLine.contains("Batch Size") && prevLine.matches(".*\\d+$")) {
+                if (prevLine.contains("Batch Size") && CoaPatterns.ENDS_WITH_DIGIT.matcher(prevLine).find()) {
                     merged.set(merged.size() - 1, prevLine + " " + currentLine);
                     continue;
                 }
@@ -410,9 +388,9 @@ public class PdfParserService {
     private int findSecondTableHeader(List<Row> rows) {
         for (int i = 0; i < rows.size(); i++) {
             String line = rows.get(i).cells.stream().map(c -> c.text).collect(Collectors.joining(" "));
-            String normalized = line.replaceAll("\\s+", " ").toLowerCase().trim();
+            String normalized = CoaPatterns.WHITESPACE.matcher(line).replaceAll(" ").toLowerCase().trim();
 
-            boolean hasSNo = normalized.matches(".*s\\.?\\s*no\\.?.*");
+            boolean hasSNo = CoaPatterns.SNO_HEADER.matcher(normalized).find();
             boolean hasTest = normalized.contains("test");
             boolean hasResult = normalized.contains("result");
             boolean hasSpec = normalized.contains("spec");
@@ -430,9 +408,9 @@ public class PdfParserService {
 
             // Case 2: Header columns split across consecutive rows
             if (hasSNo && !hasTest && !hasResult && !hasSpec && i + 3 < rows.size()) {
-                String row1 = rows.get(i + 1).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).replaceAll("\\s+", " ").toLowerCase().trim();
-                String row2 = rows.get(i + 2).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).replaceAll("\\s+", " ").toLowerCase().trim();
-                String row3 = rows.get(i + 3).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).replaceAll("\\s+", " ").toLowerCase().trim();
+                String row1 = rows.get(i + 1).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).toLowerCase().trim();
+                String row2 = rows.get(i + 2).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).toLowerCase().trim();
+                String row3 = rows.get(i + 3).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).toLowerCase().trim();
 
                 boolean row1HasTest = row1.contains("test");
                 boolean row2HasResult = row2.contains("result");
@@ -455,7 +433,7 @@ public class PdfParserService {
             String line = lines.get(i).trim();
 
             // Check for standalone storage condition like "25C/60%RH"
-            if (line.matches("^\\d+C/\\d+%RH$")) {
+            if (CoaPatterns.STORAGE_CONDITION_EXACT.matcher(line).matches()) {
                 logger.info("Line {} '{}' matches storage pattern! Already have Storage Condition? {}", i, line, out.containsKey("Storage Condition"));
                 if (!out.containsKey("Storage Condition")) {
                     out.put("Storage Condition", line);
@@ -467,7 +445,7 @@ public class PdfParserService {
             }
 
             // Also check for variations with degree symbol or spaces
-            if (line.matches("^\\d+°?C\\s*/\\s*\\d+%\\s*RH$") && !out.containsKey("Storage Condition")) {
+            if (CoaPatterns.STORAGE_CONDITION_VARIANT.matcher(line).matches() && !out.containsKey("Storage Condition")) {
                 out.put("Storage Condition", line);
                 logger.info("Found standalone Storage Condition (variant): {}", line);
                 continue;
@@ -699,7 +677,7 @@ public class PdfParserService {
                         // This is more flexible than strict regex matching
                         boolean looksLikeStorageCondition = nextLine.contains("/") &&
                                 nextLine.contains("%") &&
-                                nextLine.matches(".*\\d+.*");
+                                CoaPatterns.DIGIT.matcher(nextLine).find();
                         logger.info("Looks like storage condition: {}", looksLikeStorageCondition);
 
                         if (looksLikeStorageCondition) {
@@ -799,9 +777,7 @@ public class PdfParserService {
                     out.put("Schedule period", line.substring("Schedule period ".length()).trim());
                     logger.info("Fallback extracted Schedule period: {}", out.get("Schedule period"));
                 } else if (lineLower.contains("schedule") && lineLower.contains("period")) {
-                    String schedulePattern = "(?i)schedule\\s+period\\s+(.+?)(?=\\s+schedule\\s+date|$)";
-                    java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(schedulePattern);
-                    java.util.regex.Matcher matcher = pattern.matcher(line);
+                    Matcher matcher = CoaPatterns.SCHEDULE_PERIOD.matcher(line);
                     if (matcher.find()) {
                         out.put("Schedule period", matcher.group(1).trim());
                         logger.info("Regex extracted Schedule period: {}", out.get("Schedule period"));
@@ -814,9 +790,7 @@ public class PdfParserService {
                     out.put("Schedule Date", line.substring("Schedule Date ".length()).trim());
                     logger.info("Fallback extracted Schedule Date: {}", out.get("Schedule Date"));
                 } else if (lineLower.contains("schedule") && lineLower.contains("date")) {
-                    String datePattern = "(?i)schedule\\s+date\\s+(.+)";
-                    java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(datePattern);
-                    java.util.regex.Matcher matcher = pattern.matcher(line);
+                    Matcher matcher = CoaPatterns.SCHEDULE_DATE.matcher(line);
                     if (matcher.find()) {
                         out.put("Schedule Date", matcher.group(1).trim());
                         logger.info("Regex extracted Schedule Date: {}", out.get("Schedule Date"));
@@ -838,9 +812,7 @@ public class PdfParserService {
                         logger.info("Fallback extracted Packing Type: {}", afterPackingType);
                     }
                 } else if (lineLower.contains("packing") && lineLower.contains("type")) {
-                    String packingPattern = "(?i)packing\\s+type\\s+(.+?)(?=\\s+pack\\s+size|$)";
-                    java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(packingPattern);
-                    java.util.regex.Matcher matcher = pattern.matcher(line);
+                    Matcher matcher = CoaPatterns.PACKING_TYPE.matcher(line);
                     if (matcher.find()) {
                         out.put("Packing Type", matcher.group(1).trim());
                         logger.info("Regex extracted Packing Type: {}", out.get("Packing Type"));
@@ -853,9 +825,7 @@ public class PdfParserService {
                     out.put("Pack Size", line.substring("Pack Size ".length()).trim());
                     logger.info("Fallback extracted Pack Size: {}", out.get("Pack Size"));
                 } else if (lineLower.contains("pack") && lineLower.contains("size")) {
-                    String sizePattern = "(?i)pack\\s+size\\s+(.+)";
-                    java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(sizePattern);
-                    java.util.regex.Matcher matcher = pattern.matcher(line);
+                    Matcher matcher = CoaPatterns.PACK_SIZE.matcher(line);
                     if (matcher.find()) {
                         out.put("Pack Size", matcher.group(1).trim());
                         logger.info("Regex extracted Pack Size: {}", out.get("Pack Size"));
@@ -881,9 +851,9 @@ public class PdfParserService {
         for (int i = 0; i < rows.size(); i++) {
             Row r = rows.get(i);
             String joined = r.cells.stream().map(c -> c.text).collect(Collectors.joining(" "));
-            String normalized = joined.replaceAll("\\s+", " ").toLowerCase();
+            String normalized = CoaPatterns.WHITESPACE.matcher(joined).replaceAll(" ").toLowerCase();
 
-            boolean hasSNo = normalized.matches(".*s\\.?\\s*no\\.?.*");
+            boolean hasSNo = CoaPatterns.SNO_HEADER.matcher(normalized).find();
             boolean hasTest = normalized.contains("test");
             boolean hasResult = normalized.contains("result");
             boolean hasSpec = normalized.contains("spec");
@@ -896,8 +866,8 @@ public class PdfParserService {
                 hc.sort(Comparator.comparing(c -> c.x));
                 for (Cell c : hc) {
                     String t = c.text.toLowerCase();
-                    String normalizedCell = t.replaceAll("[\\s.]+", "");
-                    if (normalizedCell.contains("sno") || t.matches(".*s\\.?\\s*no\\.?.*")) {
+                    String normalizedCell = CoaPatterns.WHITESPACE_AND_DOTS.matcher(t).replaceAll("");
+                    if (normalizedCell.contains("sno") || CoaPatterns.SNO_HEADER.matcher(t).find()) {
                         xSno = c.x;
                         logger.info("S.No column at x={}", xSno);
                     }
@@ -919,9 +889,9 @@ public class PdfParserService {
 
             // Case 2: Header columns split across consecutive rows
             if (hasSNo && !hasTest && !hasResult && !hasSpec && i + 3 < rows.size()) {
-                String row1 = rows.get(i + 1).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).replaceAll("\\s+", " ").toLowerCase().trim();
-                String row2 = rows.get(i + 2).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).replaceAll("\\s+", " ").toLowerCase().trim();
-                String row3 = rows.get(i + 3).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).replaceAll("\\s+", " ").toLowerCase().trim();
+                String row1 = rows.get(i + 1).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).toLowerCase().trim();
+                String row2 = rows.get(i + 2).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).toLowerCase().trim();
+                String row3 = rows.get(i + 3).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).toLowerCase().trim();
 
                 boolean row1HasTest = row1.contains("test");
                 boolean row2HasResult = row2.contains("result");
@@ -1009,12 +979,12 @@ public class PdfParserService {
             }
 
             boolean hasSnoToken = !snoStr.isEmpty();
-            boolean isParent = snoStr.matches("^\\d+$");
+            boolean isParent = CoaPatterns.PARENT_SNO.matcher(snoStr).matches();
             boolean hasValues = !(resultStr.isEmpty() && specStr.isEmpty());
 
             if (hasSnoToken) {
                 if (inRow) {
-                    boolean prevParentOnly = sNoBuf.matches("^\\d+$") && resultBuf.isEmpty() && specBuf.isEmpty();
+                    boolean prevParentOnly = CoaPatterns.PARENT_SNO.matcher(sNoBuf).matches() && resultBuf.isEmpty() && specBuf.isEmpty();
                     if (!prevParentOnly || KEEP_PARENT_HEADERS) {
                         logger.info("Flushing previous row before starting new row");
                         flushSecondTableRow(out, sNoBuf, testBuf, resultBuf, specBuf);
@@ -1055,7 +1025,7 @@ public class PdfParserService {
         }
 
         if (inRow && !sNoBuf.isEmpty()) {
-            boolean parentOnly = sNoBuf.matches("^\\d+$") && resultBuf.isEmpty() && specBuf.isEmpty();
+            boolean parentOnly = CoaPatterns.PARENT_SNO.matcher(sNoBuf).matches() && resultBuf.isEmpty() && specBuf.isEmpty();
             if (!parentOnly || KEEP_PARENT_HEADERS) {
                 logger.info("Flushing final row after loop completion");
                 flushSecondTableRow(out, sNoBuf, testBuf, resultBuf, specBuf);
@@ -1096,12 +1066,7 @@ public class PdfParserService {
     }
 
     private String normalize(String text) {
-        if (text == null) return "";
-        String t = text.trim();
-        t = t.replaceAll("[:\\-]+$", "");
-        t = t.replaceAll("\\s+", " ");
-        t = t.replaceAll("\\(\\s+", "(").replaceAll("\\s+\\)", ")");
-        return t;
+        return CoaPatterns.normalizeCellText(text);
     }
 
     private String normalizeStorageCondition(String condition) {
@@ -1111,39 +1076,22 @@ public class PdfParserService {
         // Replace various non-standard characters that appear before C/F with degree symbol
         // This handles cases like "25□C" or special Unicode characters
         // Pattern: digit(s) followed by any non-letter character (except space) followed by C/F
-        normalized = normalized.replaceAll("(\\d+)[^\\w\\s°](C|F)", "$1°$2");
+        normalized = CoaPatterns.DEGREE_LOOKALIKE.matcher(normalized).replaceAll("$1°$2");
 
         // Also handle cases where degree symbol variants exist
-        normalized = normalized.replaceAll("℃", "°C");
-        normalized = normalized.replaceAll("℉", "°F");
+        normalized = CoaPatterns.CELSIUS_SIGN.matcher(normalized).replaceAll("°C");
+        normalized = CoaPatterns.FAHRENHEIT_SIGN.matcher(normalized).replaceAll("°F");
 
         // If no special character was found but we have digit directly followed by C/F, add degree symbol
-        normalized = normalized.replaceAll("(\\d+)([CF])/", "$1°$2/");
+        normalized = CoaPatterns.MISSING_DEGREE.matcher(normalized).replaceAll("$1°$2/");
 
         return normalized;
     }
 
     private String stripFooterFragments(String text) {
         if (text == null) return "";
-        String t = text;
-
-        t = t.replaceAll("(?i)\\s*Remarks:.*$", "");
-        t = t.replaceAll("(?i)\\s*Comment\\(s\\):.*$", "");
-        t = t.replaceAll("(?i)\\s*Checked [Bb]y.*$", "");
-        t = t.replaceAll("(?i)\\s*Approved [Bb]y.*$", "");
-        t = t.replaceAll("(?i)\\s*Checked [Oo]n.*$", "");
-        t = t.replaceAll("(?i)\\s*Approved [Oo]n.*$", "");
-        t = t.replaceAll("(?i)\\s*Printed [Bb]y:.*$", "");
-        t = t.replaceAll("(?i)\\s*Printed [Oo]n:.*$", "");
-        t = t.replaceAll("(?i)\\s*Copy [Nn]o\\.?:.*$", "");
-        t = t.replaceAll("(?i)\\s*Page [Nn]o\\.?:.*$", "");
-        t = t.replaceAll("\\s*Date:.*$", "");
-
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+(Pharma|Pharmaceuticals?)\\s+(Limited|Ltd\\.?|Pvt\\.?).*$", "");
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+,\\s*Plot\\s+(no\\.?|Nos?\\.?).*$", "");
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}\\s*$", "");
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+,\\s*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}.*$", "");
-
+        String t = CoaPatterns.FOOTER_LABEL_TAIL.matcher(text).replaceFirst("");
+        t = CoaPatterns.stripAddressTails(t);
         return t.trim();
     }
 
@@ -1156,28 +1104,11 @@ public class PdfParserService {
                 l.contains("checked by") || l.contains("approved by") ||
                 l.contains("checked on") || l.contains("approved on") ||
                 l.contains("printed by") || l.contains("printed on") ||
-                l.contains("copy no") || l.contains("page no") ||
-                l.matches(".*\\bdate:.*")) {
-            return true;
-        }
-
-        if (l.matches(".*\\bformat no\\..*") || l.matches(".*generated electronically.*")) {
-            return true;
-        }
-
-        if (l.matches("(?i).*(pharma|pharmaceuticals?)\\s+(limited|ltd\\.?|pvt\\.?).*")) {
-            return true;
-        }
-
-        if (l.matches("(?i).*plot\\s+(no\\.?|nos?\\.?|number).*")) {
-            return true;
-        }
-
-        if (l.matches(".*\\d{5,6}\\s*$")) {
+                l.contains("copy no") || l.contains("page no")) {
             return true;
         }
 
-        if (l.matches("(?i).*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}.*")) {
+        if (CoaPatterns.FOOTER_LINE.matcher(l).find()) {
             return true;
         }
 
@@ -1239,20 +1170,20 @@ public class PdfParserService {
 
     private String sanitizeSno(String s) {
         if (s == null) return "";
-        String[] parts = s.trim().split("\\s+");
+        String[] parts = CoaPatterns.WHITESPACE.split(s.trim());
         for (String p : parts) {
-            if (p.matches("^(\\d+)(?:\\.\\d+)?$")) return p;
+            if (CoaPatterns.SNO_VALUE.matcher(p).matches()) return p;
         }
         return "";
     }
 
     private String trailingFromSnoIntoTest(String s) {
         if (s == null) return "";
-        String[] parts = s.trim().split("\\s+");
+        String[] parts = CoaPatterns.WHITESPACE.split(s.trim());
         StringBuilder sb = new StringBuilder();
         boolean firstNumFound = false;
         for (String p : parts) {
-            if (!firstNumFound && p.matches("^(\\d+)(?:\\.\\d+)?$")) {
+            if (!firstNumFound && CoaPatterns.SNO_VALUE.matcher(p).matches()) {
                 firstNumFound = true;
                 continue;
             }
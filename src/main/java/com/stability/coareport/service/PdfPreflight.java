@@ -0,0 +1,128 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.exception.InvalidPdfException;
+import com.stability.coareport.exception.ScannedPdfNotSupportedException;
+import org.apache.pdfbox.contentstream.PDContentStream;
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdfparser.PDFStreamParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Cheap checks that run before a document is handed to the text stripper, so files that can never
+ * produce a layout are rejected in milliseconds instead of after a full extraction.
+ * <p>
+ * The text-layer probe only reads the content streams of the first few pages: it looks for fonts
+ * in the page resources and for text-showing operators, following form XObjects a few levels deep.
+ * Any probe error counts as "has text", leaving the decision to the full extraction.
+ */
+public final class PdfPreflight {
+
+    static final String SCANNED_MESSAGE = "This PDF appears to be a scanned document without extractable text. " +
+            "Please upload a digitally generated PDF report instead. " +
+            "Scanned PDFs are not currently supported.";
+
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    // The spec allows leading garbage before the header; PDFBox tolerates it too
+    private static final int HEADER_SEARCH_BYTES = 1024;
+    private static final int MAX_FORM_DEPTH = 3;
+
+    private PdfPreflight() {
+    }
+
+    public static void checkHeader(Path pdfPath) throws IOException {
+        byte[] head = new byte[HEADER_SEARCH_BYTES];
+        int length;
+        try (InputStream in = Files.newInputStream(pdfPath)) {
+            length = in.readNBytes(head, 0, head.length);
+        }
+        if (indexOf(head, length, PDF_MAGIC) < 0) {
+            throw new InvalidPdfException("The uploaded file is not a PDF document.");
+        }
+    }
+
+    /**
+     * Throws {@link ScannedPdfNotSupportedException} when none of the first {@code probePages}
+     * pages has a text layer. A {@code probePages} of zero disables the probe.
+     */
+    public static void checkTextLayer(PDDocument document, int probePages) {
+        int pageCount = document.getNumberOfPages();
+        if (pageCount == 0) {
+            throw new InvalidPdfException("The PDF document has no pages.");
+        }
+        if (probePages <= 0) {
+            return;
+        }
+
+        for (int i = 0; i < Math.min(probePages, pageCount); i++) {
+            PDPage page = document.getPage(i);
+            try {
+                if (showsText(page, page.getResources(), 0)) {
+                    return;
+                }
+            } catch (IOException | RuntimeException e) {
+                return;
+            }
+        }
+        throw new ScannedPdfNotSupportedException(SCANNED_MESSAGE);
+    }
+
+    private static boolean showsText(PDContentStream stream, PDResources resources, int depth) throws IOException {
+        if (resources == null || (!resources.getFontNames().iterator().hasNext()
+                && !resources.getXObjectNames().iterator().hasNext())) {
+            // Text operators need a font from the resources; no fonts and no forms means no text
+            return false;
+        }
+
+        PDFStreamParser parser = new PDFStreamParser(stream);
+        COSName lastName = null;
+        Object token;
+        while ((token = parser.parseNextToken()) != null) {
+            if (token instanceof COSName name) {
+                lastName = name;
+            } else if (token instanceof Operator operator) {
+                switch (operator.getName()) {
+                    case "Tj", "TJ", "'", "\"":
+                        return true;
+                    case "Do":
+                        if (lastName != null && depth < MAX_FORM_DEPTH) {
+                            PDXObject xObject = resources.getXObject(lastName);
+                            if (xObject instanceof PDFormXObject form) {
+                                PDResources formResources = form.getResources() != null ? form.getResources() : resources;
+                                if (showsText(form, formResources, depth + 1)) {
+                                    return true;
+                                }
+                            }
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(byte[] data, int length, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
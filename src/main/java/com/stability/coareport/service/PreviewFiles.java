@@ -0,0 +1,56 @@
+package com.stability.coareport.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * File housekeeping shared by the {@link PreviewStore} implementations.
+ */
+final class PreviewFiles {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreviewFiles.class);
+
+    static final Path TEMP_UPLOAD_DIR = Paths.get("temp_uploads");
+
+    private PreviewFiles() {
+    }
+
+    /**
+     * Deletes top-level files in {@code dir} that were last modified before {@code cutoff} and are
+     * not in {@code live}. Subdirectories (bulk staging, spilled previews) are left alone.
+     */
+    static int deleteOrphans(Path dir, Set<Path> live, long cutoff) {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                if (live.contains(file.toAbsolutePath().normalize())) {
+                    continue;
+                }
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not sweep {}: {}", dir, e.getMessage());
+        }
+        return deleted;
+    }
+
+    static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
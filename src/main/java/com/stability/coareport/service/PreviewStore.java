@@ -0,0 +1,42 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.dto.ParsedPdfData;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Parsed previews waiting to be submitted, keyed by temp file id. {@code preview.store.type}
+ * selects the implementation: {@code local} ({@link LocalPreviewStore}, the default) or
+ * {@code database} ({@link DatabasePreviewStore}), which shares previews and their staged PDFs
+ * between all nodes through the database.
+ */
+public interface PreviewStore {
+
+    final class Preview {
+        public final String fileName;
+        public final Path pdfPath;
+        public final ParsedPdfData data;
+
+        Preview(String fileName, Path pdfPath, ParsedPdfData data) {
+            this.fileName = fileName;
+            this.pdfPath = pdfPath;
+            this.data = data;
+        }
+    }
+
+    void put(String tempFileId, String fileName, Path pdfPath, ParsedPdfData data);
+
+    Optional<Preview> get(String tempFileId);
+
+    /**
+     * The staged PDF of a preview on this node's disk. A shared store restores it here when the
+     * preview was uploaded through another node.
+     */
+    Optional<Path> localPdf(String tempFileId);
+
+    /**
+     * Forgets a preview after it has been submitted.
+     */
+    void remove(String tempFileId);
+}
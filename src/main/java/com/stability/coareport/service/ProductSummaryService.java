@@ -0,0 +1,102 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.dto.ProductResponse;
+import com.stability.coareport.entity.ProductSummary;
+import com.stability.coareport.repository.ProductSummaryRepository;
+import com.stability.coareport.repository.ReportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Product lists for the product pages: one entry per product name and code with its report count
+ * and the batch and received date of its most recently created report.
+ * <p>
+ * Both lists are aggregated by the database ({@link ReportRepository#summarizeProducts()}), so no
+ * report entities are loaded. With {@code products.summary.materialized=true} the all-branches list
+ * is read from {@code product_summaries} instead, rebuilt every
+ * {@code products.summary.refresh-interval-ms}; it may then lag new uploads by that interval.
+ */
+@Service
+public class ProductSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSummaryService.class);
+
+    // Same aggregation as ReportRepository.summarizeProducts
+    private static final String REBUILD_SUMMARIES =
+            "INSERT INTO product_summaries (product_name, product_code, total_reports, latest_batch_no, " +
+            "latest_received_date, refreshed_at) " +
+            "SELECT product_name, product_code, total_reports, batch_no, received_date, now() FROM (" +
+            "SELECT r.product_name, r.product_code, r.batch_no, r.received_date, " +
+            "COUNT(*) OVER (PARTITION BY r.product_name, r.product_code) AS total_reports, " +
+            "ROW_NUMBER() OVER (PARTITION BY r.product_name, r.product_code " +
+            "ORDER BY r.created_at DESC NULLS LAST, r.id DESC) AS rn FROM reports r) t WHERE rn = 1";
+
+    private final ReportRepository reportRepository;
+    private final ProductSummaryRepository productSummaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean materialized;
+
+    public ProductSummaryService(ReportRepository reportRepository,
+                                 ProductSummaryRepository productSummaryRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 @Value("${products.summary.materialized:false}") boolean materialized) {
+        this.reportRepository = reportRepository;
+        this.productSummaryRepository = productSummaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.materialized = materialized;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getProductsByBranch(Long branchId) {
+        return reportRepository.summarizeProductsByBranchId(branchId).stream()
+                .map(ProductSummaryService::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getAllProducts() {
+        if (materialized) {
+            List<ProductSummary> summaries = productSummaryRepository.findAllByOrderByProductNameAscProductCodeAsc();
+            // Empty until the first refresh after enabling it
+            if (!summaries.isEmpty()) {
+                return summaries.stream()
+                        .map(s -> new ProductResponse(s.getProductName(), s.getProductCode(), s.getTotalReports(),
+                                s.getLatestBatchNo(), s.getLatestReceivedDate()))
+                        .collect(Collectors.toList());
+            }
+        }
+        return reportRepository.summarizeProducts().stream()
+                .map(ProductSummaryService::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Rebuilds {@code product_summaries} in one transaction; readers keep seeing the previous rows
+     * until it commits. The table lock keeps nodes from rebuilding concurrently.
+     */
+    @Scheduled(fixedDelayString = "${products.summary.refresh-interval-ms:300000}")
+    @Transactional
+    public void refresh() {
+        if (!materialized) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute("LOCK TABLE product_summaries IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM product_summaries");
+        int products = jdbcTemplate.update(REBUILD_SUMMARIES);
+        logger.debug("Product summaries rebuilt: {} products in {} ms", products, System.currentTimeMillis() - start);
+    }
+
+    private static ProductResponse toResponse(ReportRepository.ProductSummaryView view) {
+        return new ProductResponse(view.getProductName(), view.getProductCode(), view.getTotalReports(),
+                view.getLatestBatchNo(), view.getLatestReceivedDate());
+    }
+}
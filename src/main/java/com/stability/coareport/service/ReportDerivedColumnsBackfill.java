@@ -0,0 +1,107 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.repository.ReportRepository;
+import com.stability.coareport.repository.TestResultRepository;
+import com.stability.coareport.util.DateNormalizer;
+import com.stability.coareport.util.ResultValues;
+import com.stability.coareport.util.SchedulePeriods;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills the derived columns of reports saved before they existed: the normalized dates and the
+ * schedule period rank of reports, and the parsed value and qualifier of their test results. New
+ * and updated rows keep them in sync themselves ({@code Report.deriveColumns},
+ * {@code TestResult.deriveColumns}).
+ * <p>
+ * Runs once at startup in id order, one transaction per batch. Reports whose dates cannot be
+ * parsed keep null values and are simply looked at again on the next start. Every test result
+ * gets a qualifier, so those are only visited once.
+ */
+@Component
+@ConditionalOnProperty(name = "reports.backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class ReportDerivedColumnsBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportDerivedColumnsBackfill.class);
+
+    private final ReportRepository reportRepository;
+    private final TestResultRepository testResultRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ReportDerivedColumnsBackfill(ReportRepository reportRepository,
+                              TestResultRepository testResultRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${reports.backfill.batch-size:500}") int batchSize) {
+        this.reportRepository = reportRepository;
+        this.testResultRepository = testResultRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long afterId = 0;
+        int updated = 0;
+        while (true) {
+            List<ReportRepository.RawColumns> batch =
+                    reportRepository.findUnderivedColumnsAfter(afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            Integer batchUpdated = transactionTemplate.execute(status -> {
+                int n = 0;
+                for (ReportRepository.RawColumns dates : batch) {
+                    n += reportRepository.updateDerivedColumns(dates.getId(),
+                            DateNormalizer.parse(dates.getMfgDate()),
+                            DateNormalizer.parseExpiry(dates.getExpDate()),
+                            DateNormalizer.parse(dates.getReceivedDate()),
+                            DateNormalizer.parse(dates.getAnalysisStartDate()),
+                            DateNormalizer.parse(dates.getAnalysisEndDate()),
+                            SchedulePeriods.rank(dates.getSchedulePeriod()));
+                }
+                return n;
+            });
+            updated += batchUpdated != null ? batchUpdated : 0;
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        if (updated > 0) {
+            logger.info("Filled derived columns of {} reports", updated);
+        }
+        backfillTestResults();
+    }
+
+    private void backfillTestResults() {
+        long afterId = 0;
+        int updated = 0;
+        while (true) {
+            List<TestResultRepository.RawResult> batch =
+                    testResultRepository.findUnderivedResultsAfter(afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            Integer batchUpdated = transactionTemplate.execute(status -> {
+                int n = 0;
+                for (TestResultRepository.RawResult raw : batch) {
+                    n += testResultRepository.updateResultColumns(raw.getId(),
+                            ResultValues.value(raw.getResult()), ResultValues.qualifier(raw.getResult()));
+                }
+                return n;
+            });
+            updated += batchUpdated != null ? batchUpdated : 0;
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        if (updated > 0) {
+            logger.info("Filled parsed result values of {} test results", updated);
+        }
+    }
+}
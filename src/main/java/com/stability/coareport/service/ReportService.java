@@ -5,7 +5,9 @@ import com.stability.coareport.entity.Branch;
 import com.stability.coareport.entity.ChangeHistory;
 import com.stability.coareport.entity.Report;
 import com.stability.coareport.entity.TestResult;
+import com.stability.coareport.exception.BranchNotFoundException;
 import com.stability.coareport.repository.*;
+import com.stability.coareport.util.DateNormalizer;
 import com.stability.coareport.util.FileStorageUtil;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
@@ -22,14 +24,12 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -43,30 +43,67 @@ public class ReportService {
     private final BranchRepository branchRepository;
     private final PdfParserService pdfParserService;
     private final SecondTableExtractorService secondTableExtractorService;
+    private final PdfParseCache pdfParseCache;
+    private final PreviewStore previewStore;
     private final ChangeHistoryRepository changeHistoryRepository;
+    private final OosRollupService oosRollupService;
     private final MeterRegistry meterRegistry;
 
     private static final String UPLOAD_DIR = "uploads/";
     private static final String TEMP_UPLOAD_DIR = "temp_uploads/";
-    private final Map<String, ParsedPdfData> tempFileStore = new ConcurrentHashMap<>();
 
     public ReportPreviewResponse uploadForPreview(MultipartFile file) throws IOException {
-        ParsedPdfData parsedData = pdfParserService.parsePdf(file);
+        return uploadForPreview(stagePreviewUpload(file), ParseProgressListener.NONE);
+    }
 
-        String tempFileId = UUID.randomUUID().toString();
+    /**
+     * Streams a preview upload into temp_uploads; the returned file is what the preview (and a later
+     * submit) refers to.
+     */
+    public StagedUpload stagePreviewUpload(MultipartFile file) throws IOException {
         String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-        Path tempUploadPath = Paths.get(TEMP_UPLOAD_DIR);
-        if (!Files.exists(tempUploadPath)) {
-            Files.createDirectories(tempUploadPath);
+        Path tempFilePath = Paths.get(TEMP_UPLOAD_DIR).resolve(fileName);
+        String contentHash = FileStorageUtil.saveMultipartFileAndHash(file, tempFilePath);
+        return new StagedUpload(tempFilePath, file.getOriginalFilename(), contentHash);
+    }
+
+    public ReportPreviewResponse uploadForPreview(StagedUpload upload, ParseProgressListener listener) throws IOException {
+        String tempFileId = UUID.randomUUID().toString();
+        Path tempFilePath = upload.getPath();
+
+        ParsedPdfData parsedData;
+        try {
+            Optional<ParsedPdfData> cached = pdfParseCache.getParsedData(upload.getContentHash());
+            if (cached.isPresent()) {
+                parsedData = cached.get();
+            } else {
+                parsedData = pdfParserService.parseDocument(tempFilePath, listener);
+                pdfParseCache.putParsedData(upload.getContentHash(), parsedData);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFilePath);
+            throw e;
         }
-        Path tempFilePath = tempUploadPath.resolve(fileName);
-        Files.write(tempFilePath, file.getBytes());
 
-        tempFileStore.put(tempFileId, parsedData);
+        listener.stageStarted(IngestionStage.PERSIST);
+        previewStore.put(tempFileId, upload.getOriginalFilename(), tempFilePath, parsedData);
 
+        return toPreviewResponse(tempFileId, upload.getOriginalFilename(), tempFilePath, parsedData);
+    }
+
+    /**
+     * Returns a preview that has been parsed but not yet submitted, e.g. after a page reload.
+     */
+    public Optional<ReportPreviewResponse> getPreview(String tempFileId) {
+        return previewStore.get(tempFileId)
+                .map(preview -> toPreviewResponse(tempFileId, preview.fileName, preview.pdfPath, preview.data));
+    }
+
+    private ReportPreviewResponse toPreviewResponse(String tempFileId, String pdfFileName, Path tempFilePath,
+                                                    ParsedPdfData parsedData) {
         ReportPreviewResponse response = new ReportPreviewResponse();
         response.setTempFileId(tempFileId);
-        response.setPdfFileName(file.getOriginalFilename());
+        response.setPdfFileName(pdfFileName);
         response.setPdfFilePath(tempFilePath.toString());
         response.setProductName(parsedData.getProductName());
         response.setProductCode(parsedData.getProductCode());
@@ -99,10 +136,64 @@ public class ReportService {
         return response;
     }
 
+    /**
+     * Reads only the first-table fields of a CoA and lists stored reports for the same product,
+     * batch, storage condition and schedule period, for duplicate checks and product matching.
+     */
+    public PdfIdentifyResponse identifyPdf(MultipartFile file) throws IOException {
+        Path tempFile = Files.createTempFile("coa-identify-", ".pdf");
+        try {
+            String contentHash = FileStorageUtil.saveMultipartFileAndHash(file, tempFile);
+            // A cached full parse of the same content already carries the header fields
+            Optional<ParsedPdfData> cached = pdfParseCache.getParsedData(contentHash);
+            ParsedPdfData header = cached.isPresent() ? cached.get() : pdfParserService.parseHeader(tempFile);
+
+            List<Long> existingReportIds = new ArrayList<>();
+            if (header.getProductName() != null && header.getBatchNo() != null) {
+                existingReportIds = reportRepository.findByProductNameAndBatchNoAndStorageCondition(
+                                header.getProductName(), header.getBatchNo(), header.getStorageCondition())
+                        .stream()
+                        .filter(r -> Objects.equals(r.getSchedulePeriod(), header.getSchedulePeriod()))
+                        .map(Report::getId)
+                        .collect(Collectors.toList());
+            }
+
+            return new PdfIdentifyResponse(
+                    file.getOriginalFilename(),
+                    contentHash,
+                    header.getProductName(),
+                    header.getProductCode(),
+                    header.getBatchNo(),
+                    header.getArNo(),
+                    header.getSpecification(),
+                    header.getStorageCondition(),
+                    header.getSchedulePeriod(),
+                    header.getProtocolId(),
+                    existingReportIds
+            );
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
     public ReportPreviewResponse uploadForProductBasedPreview(MultipartFile file) throws IOException {
         logger.info("Processing product-based preview using SecondTableExtractorService");
 
-        List<TestResultDto> testResults = secondTableExtractorService.extractTestResults(file);
+        // Staged once: the copy is hashed on the way to disk and parsed from there
+        Path tempFile = Files.createTempFile("coa-product-preview-", ".pdf");
+        List<TestResultDto> testResults;
+        try {
+            String contentHash = FileStorageUtil.saveMultipartFileAndHash(file, tempFile);
+            Optional<List<TestResultDto>> cached = pdfParseCache.getTestResults(contentHash);
+            if (cached.isPresent()) {
+                testResults = cached.get();
+            } else {
+                testResults = secondTableExtractorService.extractTestResults(tempFile, ParseProgressListener.NONE);
+                pdfParseCache.putTestResults(contentHash, testResults);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
         logger.info("Extracted {} test results using SecondTableExtractorService", testResults.size());
 
         ReportPreviewResponse response = new ReportPreviewResponse();
@@ -121,6 +212,10 @@ public class ReportService {
                 .orElseThrow(() -> new RuntimeException("Branch not found"));
 
         Path tempFilePath = Paths.get(request.getPdfFilePath());
+        if (!Files.exists(tempFilePath) && request.getTempFileId() != null) {
+            // The preview may have been staged on another node
+            tempFilePath = previewStore.localPdf(request.getTempFileId()).orElse(tempFilePath);
+        }
         if (!Files.exists(tempFilePath)) {
             throw new RuntimeException("Temporary PDF file not found");
         }
@@ -136,71 +231,32 @@ public class ReportService {
         Path finalFilePath = Paths.get(finalFilePathStr);
         Files.move(tempFilePath, finalFilePath);
 
-        Report report = new Report();
-        report.setBranch(branch);
-        report.setProductName(request.getProductName());
-        report.setProductCode(request.getProductCode());
-        report.setArNo(request.getArNo());
-        report.setBatchNo(request.getBatchNo());
-        report.setBatchSize(request.getBatchSize());
-        report.setMfgDate(request.getMfgDate());
-        report.setExpDate(request.getExpDate());
-        report.setSpecification(request.getSpecification());
-        report.setStorageCondition(request.getStorageCondition());
-        report.setSampleQty(request.getSampleQty());
-        report.setReceivedDate(request.getReceivedDate());
-        report.setAnalysisStartDate(request.getAnalysisStartDate());
-        report.setAnalysisEndDate(request.getAnalysisEndDate());
-        report.setProtocolId(request.getProtocolId());
-        report.setStpNo(request.getStpNo());
-        report.setSchedulePeriod(request.getSchedulePeriod());
-        report.setPackingType(request.getPackingType());
-        report.setPackSize(request.getPackSize());
-        report.setRemarks(request.getRemarks());
-        report.setCheckedBy(request.getCheckedBy());
-        report.setApprovedBy(request.getApprovedBy());
-        report.setCheckDate(request.getCheckDate());
-        report.setApprovalDate(request.getApprovalDate());
-        report.setHdpeCapDepth(request.getHdpeCapDepth());
-        report.setLdpeNozzleDetails(request.getLdpeNozzleDetails());
-        report.setLdpeBottleDetails(request.getLdpeBottleDetails());
-        report.setPdfFileName(request.getPdfFileName());
-        report.setPdfFilePath(finalFilePath.toString());
-        report.setUploadedBy(request.getUploadedBy());
-        report.setUploadedAt(java.time.LocalDateTime.now());
-        report.setApprovalStatus("pending");
-
-        report = reportRepository.save(report);
-
-        List<TestResult> testResults = new ArrayList<>();
-        for (TestResultDto dto : request.getTestResults()) {
-            TestResult testResult = new TestResult();
-            testResult.setReport(report);
-            testResult.setSNo(dto.getSNo());
-            testResult.setTest(dto.getTest());
-            testResult.setResult(dto.getResult());
-            testResult.setSpecification(dto.getSpecification());
-            testResult.setObjection(dto.getObjection());
-            testResults.add(testResult);
-        }
-
-        testResultRepository.saveAll(testResults);
-        report.setTestResults(testResults);
+        Report report = saveReport(buildReport(branch, request, request.getPdfFileName(), finalFilePath,
+                request.getUploadedBy()), request.getTestResults());
 
         if (request.getTempFileId() != null) {
-            tempFileStore.remove(request.getTempFileId());
+            previewStore.remove(request.getTempFileId());
         }
 
         return report;
     }
 
+    /**
+     * Persists a parsed CoA whose PDF already sits at its final location under uploads/. Bulk imports
+     * call this for many reports inside one transaction.
+     */
+    public Report saveParsedReport(ParsedPdfData parsedData, Branch branch, String pdfFileName,
+                                   Path pdfFilePath, String uploadedBy) {
+        return saveReport(buildReport(branch, parsedData, pdfFileName, pdfFilePath, uploadedBy),
+                parsedData.getTestResults());
+    }
+
     @Transactional
     public Report createManualTestEntry(ManualTestEntryRequest request, String username) {
         Branch branch = branchRepository.findByName(request.getBranchName())
                 .orElseThrow(() -> new RuntimeException("Branch not found: " + request.getBranchName()));
 
-        Report report = new Report();
-        report.setBranch(branch);
+        Report report = buildReport(branch, username);
         report.setProductName(request.getProductName());
         report.setProductCode(request.getProductCode());
         report.setArNo(request.getArNo());
@@ -219,25 +275,7 @@ public class ReportService {
         report.setHdpeCapDepth(request.getHdpeCapDetails());
         report.setLdpeNozzleDetails(request.getLdpeNozzleDetails());
         report.setLdpeBottleDetails(request.getLdpeBottleDetails());
-        report.setUploadedBy(username);
-        report.setUploadedAt(java.time.LocalDateTime.now());
-        report.setApprovalStatus("pending");
-
-        report = reportRepository.save(report);
-
-        List<TestResult> testResults = new ArrayList<>();
-        for (TestResultDto dto : request.getTestResults()) {
-            TestResult testResult = new TestResult();
-            testResult.setReport(report);
-            testResult.setSNo(dto.getSNo());
-            testResult.setTest(dto.getTest());
-            testResult.setResult(dto.getResult());
-            testResult.setSpecification(dto.getSpecification());
-            testResults.add(testResult);
-        }
-
-        testResultRepository.saveAll(testResults);
-        report.setTestResults(testResults);
+        report = saveReport(report, request.getTestResults());
 
         logger.info("Manual test entry created successfully for batch: {}", request.getBatchNo());
         return report;
@@ -259,44 +297,119 @@ public class ReportService {
             Long branchId,
             String uploadedBy
     ) throws IOException {
-        Branch branch = branchRepository.findById(branchId)
-                .orElseThrow(() -> new RuntimeException("Branch not found"));
+        ProductBasedUploadRequest request = new ProductBasedUploadRequest(
+                productName, productCode, batchNo, arNo, specificationId, batchSize,
+                storageCondition, sampleOrientation, schedulePeriod, companyId, branchId);
+
+        return processProductBasedUpload(stageProductBasedUpload(file, request), request, uploadedBy,
+                ParseProgressListener.NONE);
+    }
+
+    /**
+     * Streams a product-based upload straight to its final location under uploads/. The branch is
+     * checked first, so a request that cannot be processed leaves no file behind.
+     */
+    public StagedUpload stageProductBasedUpload(MultipartFile file, ProductBasedUploadRequest request) throws IOException {
+        if (request.getBranchId() == null || !branchRepository.existsById(request.getBranchId())) {
+            throw new BranchNotFoundException("Branch not found");
+        }
 
         String finalFilePathStr = FileStorageUtil.generateFilePath(
-                productName,
-                batchNo,
-                storageCondition,
+                request.getProductName(),
+                request.getBatchNo(),
+                request.getStorageCondition(),
                 file.getOriginalFilename()
         );
 
-        FileStorageUtil.ensureDirectoryExists(finalFilePathStr);
         Path finalFilePath = Paths.get(finalFilePathStr);
-        Files.write(finalFilePath, file.getBytes());
+        String contentHash = FileStorageUtil.saveMultipartFileAndHash(file, finalFilePath);
+        return new StagedUpload(finalFilePath, file.getOriginalFilename(), contentHash);
+    }
+
+    @Transactional
+    public Report processProductBasedUpload(StagedUpload upload, ProductBasedUploadRequest request,
+                                            String uploadedBy, ParseProgressListener listener) throws IOException {
+        Branch branch = branchRepository.findById(request.getBranchId())
+                .orElseThrow(() -> new RuntimeException("Branch not found"));
 
-        List<TestResultDto> testResultDtos = secondTableExtractorService.extractTestResults(file);
+        Path finalFilePath = upload.getPath();
 
+        List<TestResultDto> testResultDtos = secondTableExtractorService.extractTestResults(finalFilePath, listener);
+
+        listener.stageStarted(IngestionStage.PERSIST);
+        Report report = buildReport(branch, uploadedBy);
+        report.setProductName(request.getProductName());
+        report.setProductCode(request.getProductCode());
+        report.setBatchNo(request.getBatchNo());
+        report.setArNo(request.getArNo());
+        report.setSpecification(request.getSpecificationId());
+        report.setBatchSize(request.getBatchSize());
+        report.setStorageCondition(request.getStorageCondition());
+        report.setSampleOrientation(request.getSampleOrientation());
+        report.setSchedulePeriod(request.getSchedulePeriod());
+        report.setPdfFileName(upload.getOriginalFilename());
+        report.setPdfFilePath(finalFilePath.toString());
+        report = saveReport(report, testResultDtos);
+
+        logger.info("Product-based upload processed successfully for product: {} batch: {}",
+                request.getProductName(), request.getBatchNo());
+        return report;
+    }
+
+    /**
+     * A new pending report of {@code branch}, uploaded now by {@code uploadedBy}; the common start of
+     * every creation path.
+     */
+    private Report buildReport(Branch branch, String uploadedBy) {
         Report report = new Report();
         report.setBranch(branch);
-        report.setProductName(productName);
-        report.setProductCode(productCode);
-        report.setBatchNo(batchNo);
-        report.setArNo(arNo);
-        report.setSpecification(specificationId);
-        report.setBatchSize(batchSize);
-        report.setStorageCondition(storageCondition);
-        report.setSampleOrientation(sampleOrientation);
-        report.setSchedulePeriod(schedulePeriod);
-        report.setPdfFileName(file.getOriginalFilename());
-        report.setPdfFilePath(finalFilePath.toString());
         report.setUploadedBy(uploadedBy);
         report.setUploadedAt(java.time.LocalDateTime.now());
         report.setApprovalStatus("pending");
+        return report;
+    }
 
-        report = reportRepository.save(report);
+    /**
+     * A new pending report carrying the CoA header fields and its PDF under uploads/.
+     */
+    private Report buildReport(Branch branch, CoaHeaderFields header, String pdfFileName, Path pdfFilePath,
+                               String uploadedBy) {
+        Report report = buildReport(branch, uploadedBy);
+        report.setProductName(header.getProductName());
+        report.setProductCode(header.getProductCode());
+        report.setArNo(header.getArNo());
+        report.setBatchNo(header.getBatchNo());
+        report.setBatchSize(header.getBatchSize());
+        report.setMfgDate(header.getMfgDate());
+        report.setExpDate(header.getExpDate());
+        report.setSpecification(header.getSpecification());
+        report.setStorageCondition(header.getStorageCondition());
+        report.setSampleQty(header.getSampleQty());
+        report.setReceivedDate(header.getReceivedDate());
+        report.setAnalysisStartDate(header.getAnalysisStartDate());
+        report.setAnalysisEndDate(header.getAnalysisEndDate());
+        report.setProtocolId(header.getProtocolId());
+        report.setStpNo(header.getStpNo());
+        report.setSchedulePeriod(header.getSchedulePeriod());
+        report.setPackingType(header.getPackingType());
+        report.setPackSize(header.getPackSize());
+        report.setRemarks(header.getRemarks());
+        report.setCheckedBy(header.getCheckedBy());
+        report.setApprovedBy(header.getApprovedBy());
+        report.setCheckDate(header.getCheckDate());
+        report.setApprovalDate(header.getApprovalDate());
+        report.setHdpeCapDepth(header.getHdpeCapDepth());
+        report.setLdpeNozzleDetails(header.getLdpeNozzleDetails());
+        report.setLdpeBottleDetails(header.getLdpeBottleDetails());
+        report.setPdfFileName(pdfFileName);
+        report.setPdfFilePath(pdfFilePath.toString());
+        return report;
+    }
 
-        if (testResultDtos != null && !testResultDtos.isEmpty()) {
-            List<TestResult> testResults = new ArrayList<>();
-            for (TestResultDto dto : testResultDtos) {
+    private List<TestResult> buildTestResults(Report report, List<TestResultDto> dtos) {
+        List<TestResult> testResults = new ArrayList<>();
+        if (dtos != null) {
+            for (TestResultDto dto : dtos) {
                 TestResult testResult = new TestResult();
                 testResult.setReport(report);
                 testResult.setSNo(dto.getSNo());
@@ -306,11 +419,19 @@ public class ReportService {
                 testResult.setObjection(dto.getObjection());
                 testResults.add(testResult);
             }
-            testResultRepository.saveAll(testResults);
-            report.setTestResults(testResults);
         }
+        return testResults;
+    }
 
-        logger.info("Product-based upload processed successfully for product: {} batch: {}", productName, batchNo);
+    /**
+     * Saves a new report with its test results (batched inserts) and counts them in the OOS rollups.
+     */
+    private Report saveReport(Report report, List<TestResultDto> testResultDtos) {
+        report = reportRepository.save(report);
+        List<TestResult> testResults = buildTestResults(report, testResultDtos);
+        testResultRepository.saveAll(testResults);
+        report.getTestResults().addAll(testResults);
+        oosRollupService.recordNewResults(report, testResults);
         return report;
     }
 
@@ -329,7 +450,7 @@ public class ReportService {
 
         PageRequest pageRequest;
         if (sortBy != null && !sortBy.isEmpty()) {
-            pageRequest = PageRequest.of(page, size, Sort.by(direction, sortBy));
+            pageRequest = PageRequest.of(page, size, Sort.by(direction, sortProperty(sortBy)));
         } else {
             pageRequest = PageRequest.of(page, size, Sort.by(direction, "id"));
         }
@@ -345,7 +466,7 @@ public class ReportService {
 
         PageRequest pageRequest;
         if (sortBy != null && !sortBy.isEmpty()) {
-            pageRequest = PageRequest.of(page, size, Sort.by(direction, sortBy));
+            pageRequest = PageRequest.of(page, size, Sort.by(direction, sortProperty(sortBy)));
         } else {
             pageRequest = PageRequest.of(page, size, Sort.by(direction, "id"));
         }
@@ -354,6 +475,17 @@ public class ReportService {
         return PageResponse.fromSpringPage(reportPage);
     }
 
+    /**
+     * Date strings sort lexically ("01-DEC-2024" before "15-JAN-2023"), so date sorts use the
+     * normalized columns instead.
+     */
+    private static String sortProperty(String sortBy) {
+        return switch (sortBy) {
+            case "mfgDate", "expDate", "receivedDate", "analysisStartDate", "analysisEndDate" -> sortBy + "Value";
+            default -> sortBy;
+        };
+    }
+
     public Report getReportById(Long id) {
         return reportRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Report not found"));
@@ -430,55 +562,15 @@ public class ReportService {
         return changeHistoryRepository.findByEntityTypeAndEntityIdOrderByModifiedAtDesc(entityType, entityId);
     }
 
+    @Transactional(readOnly = true)
     public List<ChangeHistoryResponse> getChangeHistoryByProduct(String productName) {
-        List<Report> reports = reportRepository.findByProductName(productName);
-        List<Long> reportIds = reports.stream().map(Report::getId).collect(Collectors.toList());
-
-        List<ChangeHistory> allHistory = new ArrayList<>();
-        for (Long reportId : reportIds) {
-            allHistory.addAll(changeHistoryRepository.findByEntityTypeAndEntityIdOrderByModifiedAtDesc("Report", reportId));
-
-            Report report = reportRepository.findById(reportId).orElse(null);
-            if (report != null) {
-                for (TestResult testResult : report.getTestResults()) {
-                    allHistory.addAll(changeHistoryRepository.findByEntityTypeAndEntityIdOrderByModifiedAtDesc("TestResult", testResult.getId()));
-                }
-            }
-        }
-
-        allHistory.sort(Comparator.comparing(ChangeHistory::getModifiedAt).reversed());
-
-        return allHistory.stream().map(history -> {
-            ChangeHistoryResponse response = new ChangeHistoryResponse();
-            response.setId(history.getId());
-            response.setEntityType(history.getEntityType());
-            response.setEntityId(history.getEntityId());
-            response.setFieldName(history.getFieldName());
-            response.setOldValue(history.getOldValue());
-            response.setNewValue(history.getNewValue());
-            response.setAction(history.getAction());
-            response.setModifiedBy(history.getModifiedBy());
-            response.setModifiedAt(history.getModifiedAt());
-            response.setRemarks(history.getRemarks());
-            response.setEvidenceDocumentName(history.getEvidenceDocumentName());
-            response.setEvidenceDocumentPath(history.getEvidenceDocumentPath());
-
-            if ("Report".equals(history.getEntityType())) {
-                Report report = reportRepository.findById(history.getEntityId()).orElse(null);
-                if (report != null) {
-                    response.setProductName(report.getProductName());
-                    response.setBatchNo(report.getBatchNo());
-                }
-            } else if ("TestResult".equals(history.getEntityType())) {
-                TestResult testResult = testResultRepository.findById(history.getEntityId()).orElse(null);
-                if (testResult != null && testResult.getReport() != null) {
-                    response.setProductName(testResult.getReport().getProductName());
-                    response.setBatchNo(testResult.getReport().getBatchNo());
-                }
-            }
+        return changeHistoryRepository.findTimelineByProductName(productName);
+    }
 
-            return response;
-        }).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public PageResponse<ChangeHistoryResponse> getChangeHistoryByProduct(String productName, int page, int size) {
+        return PageResponse.fromSpringPage(
+                changeHistoryRepository.findTimelineByProductName(productName, PageRequest.of(page, size)));
     }
 
     public List<String> getBatchNumbersByProduct(String productName) {
@@ -509,7 +601,7 @@ public class ReportService {
                                              String storageCondition, String testName, String specification,
                                              String market, String position, String packType, String packValue,
                                              List<String> stations, boolean invert) {
-        List<Report> reports = reportRepository.findByProductNameOrderByCreatedAtAsc(productName);
+        List<Report> reports = reportRepository.findWithTestResultsByProductNameOrderByCreatedAtAsc(productName);
 
         if (batchNumbers != null && !batchNumbers.isEmpty()) {
             reports = reports.stream()
@@ -587,7 +679,7 @@ public class ReportService {
             for (TestResult tr : report.getTestResults()) {
                 if (testName == null || testName.isEmpty() || testName.equals(tr.getTest())) {
                     if (specification == null || specification.isEmpty() || specification.equals(tr.getSpecification())) {
-                        Double numericValue = extractNumericValue(tr.getResult());
+                        Double numericValue = numericValue(tr);
                         if (invert && numericValue != null) {
                             numericValue = -numericValue;
                         }
@@ -640,9 +732,9 @@ public class ReportService {
         List<Report> reports;
 
         if (storageCondition != null && !storageCondition.isEmpty()) {
-            reports = reportRepository.findByProductNameAndStorageCondition(productName, storageCondition);
+            reports = reportRepository.findWithTestResultsByProductNameAndStorageCondition(productName, storageCondition);
         } else {
-            reports = reportRepository.findByProductNameOrderByCreatedAtAsc(productName);
+            reports = reportRepository.findWithTestResultsByProductNameOrderByCreatedAtAsc(productName);
         }
 
         if (reports.size() < 2) {
@@ -658,7 +750,7 @@ public class ReportService {
             if (months == null) continue;
 
             for (TestResult tr : report.getTestResults()) {
-                Double value = extractNumericValue(tr.getResult());
+                Double value = numericValue(tr);
                 if (value != null) {
                     PredictionResponse.DataPoint dataPoint = new PredictionResponse.DataPoint();
                     dataPoint.setBatchNumber(report.getBatchNo());
@@ -815,20 +907,9 @@ public class ReportService {
         return Math.round(Math.max(0.3, Math.min(1.0, confidence)) * 100) / 100.0;
     }
 
-    private Double extractNumericValue(String result) {
-        if (result == null || result.isEmpty()) {
-            return null;
-        }
-
-        try {
-            String cleaned = result.replaceAll("[^0-9.\\-]", "");
-            if (!cleaned.isEmpty()) {
-                return Double.parseDouble(cleaned);
-            }
-        } catch (NumberFormatException e) {
-        }
-
-        return null;
+    private static Double numericValue(TestResult testResult) {
+        BigDecimal value = testResult.numericResult();
+        return value != null ? value.doubleValue() : null;
     }
 
     private double calculateSlope(double[] values) {
@@ -866,7 +947,7 @@ public class ReportService {
 
         String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
         Path filePath = Paths.get(uploadDir + fileName);
-        Files.write(filePath, file.getBytes());
+        FileStorageUtil.saveMultipartFile(file, filePath);
 
         return "/evidence-documents/" + fileName;
     }
@@ -904,68 +985,20 @@ public class ReportService {
     }
 
     private void validateMfgDate(String mfgDateStr, List<String> warnings) {
-        try {
-            DateTimeFormatter[] formatters = {
-                    DateTimeFormatter.ofPattern("dd-MMM-yyyy"),
-                    DateTimeFormatter.ofPattern("dd-MM-yyyy"),
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-                    DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                    DateTimeFormatter.ofPattern("MMM-yyyy")
-            };
-
-            LocalDate mfgDate = null;
-            for (DateTimeFormatter formatter : formatters) {
-                try {
-                    mfgDate = LocalDate.parse(mfgDateStr, formatter);
-                    break;
-                } catch (DateTimeParseException e) {
-                }
-            }
-
-            if (mfgDate == null) {
-                warnings.add("Manufacturing Date format could not be validated: " + mfgDateStr + " (may be month-year format)");
-                return;
-            }
-
-            LocalDate today = LocalDate.now();
-            if (mfgDate.isAfter(today)) {
-                warnings.add("Manufacturing Date (" + mfgDateStr + ") appears to be in the future");
-            }
-        } catch (Exception e) {
-            warnings.add("Could not validate Manufacturing Date: " + e.getMessage());
+        LocalDate mfgDate = DateNormalizer.parse(mfgDateStr);
+        if (mfgDate == null) {
+            warnings.add("Manufacturing Date format could not be validated: " + mfgDateStr);
+        } else if (mfgDate.isAfter(LocalDate.now())) {
+            warnings.add("Manufacturing Date (" + mfgDateStr + ") appears to be in the future");
         }
     }
 
     private void validateExpDate(String expDateStr, List<String> warnings) {
-        try {
-            DateTimeFormatter[] formatters = {
-                    DateTimeFormatter.ofPattern("dd-MMM-yyyy"),
-                    DateTimeFormatter.ofPattern("dd-MM-yyyy"),
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-                    DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                    DateTimeFormatter.ofPattern("MMM-yyyy")
-            };
-
-            LocalDate expDate = null;
-            for (DateTimeFormatter formatter : formatters) {
-                try {
-                    expDate = LocalDate.parse(expDateStr, formatter);
-                    break;
-                } catch (DateTimeParseException e) {
-                }
-            }
-
-            if (expDate == null) {
-                warnings.add("Expiry Date format could not be validated: " + expDateStr + " (may be month-year format)");
-                return;
-            }
-
-            LocalDate today = LocalDate.now();
-            if (expDate.isBefore(today)) {
-                warnings.add("Expiry Date (" + expDateStr + ") appears to have already passed");
-            }
-        } catch (Exception e) {
-            warnings.add("Could not validate Expiry Date: " + e.getMessage());
+        LocalDate expDate = DateNormalizer.parseExpiry(expDateStr);
+        if (expDate == null) {
+            warnings.add("Expiry Date format could not be validated: " + expDateStr);
+        } else if (expDate.isBefore(LocalDate.now())) {
+            warnings.add("Expiry Date (" + expDateStr + ") appears to have already passed");
         }
     }
 }
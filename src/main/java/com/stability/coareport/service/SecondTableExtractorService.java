@@ -2,16 +2,18 @@ package com.stability.coareport.service;
 
 import com.stability.coareport.dto.TestResultDto;
 import com.stability.coareport.exception.ScannedPdfNotSupportedException;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.pdfbox.text.TextPosition;
+import com.stability.coareport.service.PdfLayout.Cell;
+import com.stability.coareport.service.PdfLayout.Page;
+import com.stability.coareport.service.PdfLayout.Row;
+import com.stability.coareport.util.CoaPatterns;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -21,132 +23,70 @@ public class SecondTableExtractorService {
     private static final Logger logger = LoggerFactory.getLogger(SecondTableExtractorService.class);
     private static final boolean KEEP_PARENT_HEADERS = true;
 
-    static class Cell {
-        final float x;
-        final String text;
-        Cell(float x, String text) { this.x = x; this.text = text; }
-    }
+    private final PdfLayoutExtractor layoutExtractor;
+    private final PdfPageExecutor pageExecutor;
+    private final ParseLimits parseLimits;
 
-    static class Row {
-        final float y;
-        final List<Cell> cells = new ArrayList<>();
-        Row(float y) { this.y = y; }
+    public SecondTableExtractorService(PdfLayoutExtractor layoutExtractor, PdfPageExecutor pageExecutor) {
+        this(layoutExtractor, pageExecutor, ParseLimits.unlimited());
     }
 
-    static class PageText {
-        final List<Row> rows = new ArrayList<>();
+    @Autowired
+    public SecondTableExtractorService(PdfLayoutExtractor layoutExtractor, PdfPageExecutor pageExecutor, ParseLimits parseLimits) {
+        this.layoutExtractor = layoutExtractor;
+        this.pageExecutor = pageExecutor;
+        this.parseLimits = parseLimits;
     }
 
-    private static class PositionStripper extends PDFTextStripper {
-        private final List<PageText> pages = new ArrayList<>();
-        private PageText currentPage;
-
-        PositionStripper() throws IOException {
-            super();
-            setSortByPosition(true);
-        }
-
-        List<PageText> getPages() { return pages; }
-
-        @Override
-        protected void startPage(org.apache.pdfbox.pdmodel.PDPage page) throws IOException {
-            currentPage = new PageText();
-            pages.add(currentPage);
-            super.startPage(page);
-        }
-
-        @Override
-        protected void writeString(String string, List<TextPosition> textPositions) throws IOException {
-            if (currentPage == null || textPositions.isEmpty()) return;
-
-            Map<Integer, List<TextPosition>> lineBuckets = new LinkedHashMap<>();
-            for (TextPosition tp : textPositions) {
-                int key = Math.round(tp.getYDirAdj());
-                lineBuckets.computeIfAbsent(key, k -> new ArrayList<>()).add(tp);
-            }
-
-            for (List<TextPosition> line : lineBuckets.values()) {
-                line.sort(Comparator.comparing(TextPosition::getXDirAdj));
-                float y = line.get(0).getYDirAdj();
-                Row row = new Row(y);
-
-                StringBuilder word = new StringBuilder();
-                float wordStartX = -1f;
-                float lastRight = -1f;
-
-                for (TextPosition tp : line) {
-                    float x = tp.getXDirAdj();
-                    float right = x + tp.getWidth();
-                    String ch = tp.getUnicode();
-
-                    if (lastRight >= 0) {
-                        float gap = x - lastRight;
-                        if (gap > tp.getWidthOfSpace() / 2.0) {
-                            if (word.length() > 0) {
-                                row.cells.add(new Cell(wordStartX >= 0 ? wordStartX : x, word.toString().trim()));
-                                word.setLength(0);
-                            }
-                            wordStartX = x;
-                        }
-                    } else {
-                        wordStartX = x;
-                    }
-
-                    word.append(ch);
-                    lastRight = right;
-                }
-
-                if (word.length() > 0) {
-                    row.cells.add(new Cell(wordStartX >= 0 ? wordStartX : 0f, word.toString().trim()));
-                }
-
-                if (!row.cells.isEmpty()) currentPage.rows.add(row);
-            }
-        }
+    public List<TestResultDto> extractTestResults(MultipartFile file) throws IOException {
+        ParseProgressListener budget = parseLimits.budget(file.getOriginalFilename(), ParseProgressListener.NONE);
+        return extractTestResults(layoutExtractor.extract(file, budget), budget);
     }
 
-    public List<TestResultDto> extractTestResults(MultipartFile file) throws IOException {
-        try (PDDocument document = Loader.loadPDF(file.getBytes())) {
-            PositionStripper stripper = new PositionStripper();
-            stripper.getText(document);
-
-            List<PageText> pages = stripper.getPages();
-
-            if (pages.isEmpty() || isScannedPdf(pages)) {
-                logger.warn("Scanned PDF detected: No extractable text found");
-                throw new ScannedPdfNotSupportedException(
-                        "This PDF appears to be a scanned document without extractable text. " +
-                                "Please upload a digitally generated PDF report instead. " +
-                                "Scanned PDFs are not currently supported."
-                );
-            }
+    /**
+     * Extracts the test results of a PDF on disk within the configured {@link ParseLimits}.
+     */
+    public List<TestResultDto> extractTestResults(Path pdfPath, ParseProgressListener listener) throws IOException {
+        ParseProgressListener budget = parseLimits.budget(String.valueOf(pdfPath.getFileName()), listener);
+        return extractTestResults(layoutExtractor.extract(pdfPath, budget), budget);
+    }
 
-            LinkedHashMap<String, TestResultDto> testResults = new LinkedHashMap<>();
+    public List<TestResultDto> extractTestResults(PdfLayout layout) throws IOException {
+        return extractTestResults(layout, ParseProgressListener.NONE);
+    }
 
-            for (PageText page : pages) {
-                parseTestResultsFromPage(page, testResults);
-            }
+    public List<TestResultDto> extractTestResults(PdfLayout layout, ParseProgressListener listener) throws IOException {
+        List<Page> pages = layout.getPages();
 
-            return new ArrayList<>(testResults.values());
+        if (pages.isEmpty() || !layout.hasExtractableText()) {
+            logger.warn("Scanned PDF detected: No extractable text found");
+            throw new ScannedPdfNotSupportedException(
+                    "This PDF appears to be a scanned document without extractable text. " +
+                            "Please upload a digitally generated PDF report instead. " +
+                            "Scanned PDFs are not currently supported."
+            );
         }
-    }
 
-    private boolean isScannedPdf(List<PageText> pages) {
-        if (pages.isEmpty()) {
-            return true;
-        }
+        listener.stageStarted(IngestionStage.TABLE_PARSE);
+        // Each page detects its own header and columns, so pages are parsed independently and
+        // concatenated in page order, which keeps the S.No order of the document.
+        List<List<TestResultDto>> perPage = pageExecutor.isParallel(pages.size())
+                ? pageExecutor.map(pages.size(), i -> parseTestResults(pages.get(i), listener), listener)
+                : pages.stream().map(page -> parseTestResults(page, listener)).collect(Collectors.toList());
 
-        int totalCells = 0;
-        for (PageText page : pages) {
-            for (Row row : page.rows) {
-                totalCells += row.cells.size();
-            }
-        }
+        List<TestResultDto> testResults = new ArrayList<>();
+        perPage.forEach(testResults::addAll);
+        return testResults;
+    }
 
-        return totalCells == 0;
+    private List<TestResultDto> parseTestResults(Page page, ParseProgressListener listener) {
+        listener.checkpoint();
+        LinkedHashMap<String, TestResultDto> testResults = new LinkedHashMap<>();
+        parseTestResultsFromPage(page, testResults);
+        return new ArrayList<>(testResults.values());
     }
 
-    private void parseTestResultsFromPage(PageText page, LinkedHashMap<String, TestResultDto> testResultsOut) {
+    private void parseTestResultsFromPage(Page page, LinkedHashMap<String, TestResultDto> testResultsOut) {
         logger.info("Parsing test results from page with {} rows", page.rows.size());
 
         float xSno = 0f, xTest = 120f, xResult = 320f, xSpec = 450f;
@@ -156,9 +96,9 @@ public class SecondTableExtractorService {
         for (int i = 0; i < page.rows.size(); i++) {
             Row r = page.rows.get(i);
             String joined = r.cells.stream().map(c -> c.text).collect(Collectors.joining(" "));
-            String normalized = joined.replaceAll("\\s+", " ").toLowerCase().trim();
+            String normalized = CoaPatterns.WHITESPACE.matcher(joined).replaceAll(" ").toLowerCase().trim();
 
-            boolean hasSNo = normalized.matches(".*s\\.?\\s*no\\.?.*");
+            boolean hasSNo = CoaPatterns.SNO_HEADER.matcher(normalized).find();
             boolean hasTest = normalized.contains("test");
             boolean hasResult = normalized.contains("result");
             boolean hasSpec = normalized.contains("spec");
@@ -176,8 +116,8 @@ public class SecondTableExtractorService {
                 hc.sort(Comparator.comparing(c -> c.x));
                 for (Cell c : hc) {
                     String t = c.text.toLowerCase();
-                    String normalizedCell = t.replaceAll("[\\s.]+", "");
-                    if (normalizedCell.contains("sno") || t.matches(".*s\\.?\\s*no\\.?.*")) {
+                    String normalizedCell = CoaPatterns.WHITESPACE_AND_DOTS.matcher(t).replaceAll("");
+                    if (normalizedCell.contains("sno") || CoaPatterns.SNO_HEADER.matcher(t).find()) {
                         xSno = c.x;
                         logger.info("S.No column at x={}", xSno);
                     }
@@ -199,9 +139,9 @@ public class SecondTableExtractorService {
 
             // Case 2: Header columns split across consecutive rows (e.g., Row N: "S. No.", Row N+1: "TEST", etc.)
             if (hasSNo && !hasTest && !hasResult && !hasSpec && i + 3 < page.rows.size()) {
-                String row1 = page.rows.get(i + 1).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).replaceAll("\\s+", " ").toLowerCase().trim();
-                String row2 = page.rows.get(i + 2).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).replaceAll("\\s+", " ").toLowerCase().trim();
-                String row3 = page.rows.get(i + 3).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).replaceAll("\\s+", " ").toLowerCase().trim();
+                String row1 = page.rows.get(i + 1).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).toLowerCase().trim();
+                String row2 = page.rows.get(i + 2).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).toLowerCase().trim();
+                String row3 = page.rows.get(i + 3).cells.stream().map(c -> c.text).collect(Collectors.joining(" ")).toLowerCase().trim();
 
                 boolean row1HasTest = row1.contains("test");
                 boolean row2HasResult = row2.contains("result");
@@ -350,12 +290,12 @@ public class SecondTableExtractorService {
             }
 
             boolean hasSnoToken = !snoStr.isEmpty();
-            boolean isParent = snoStr.matches("^\\d+$");
+            boolean isParent = CoaPatterns.PARENT_SNO.matcher(snoStr).matches();
             boolean hasValues = !(resultStr.isEmpty() && specStr.isEmpty());
 
             if (hasSnoToken) {
                 if (inRow) {
-                    boolean prevParentOnly = sNoBuf.matches("^\\d+$") && resultBuf.isEmpty() && specBuf.isEmpty();
+                    boolean prevParentOnly = CoaPatterns.PARENT_SNO.matcher(sNoBuf).matches() && resultBuf.isEmpty() && specBuf.isEmpty();
                     if (!prevParentOnly || KEEP_PARENT_HEADERS) {
                         logger.info("Row {} - Flushing previous row before starting new row", i);
                         flushTestResult(testResultsOut, sNoBuf, testBuf, resultBuf, specBuf);
@@ -395,7 +335,7 @@ public class SecondTableExtractorService {
         }
 
         if (inRow && !sNoBuf.isEmpty()) {
-            boolean parentOnly = sNoBuf.matches("^\\d+$") && resultBuf.isEmpty() && specBuf.isEmpty();
+            boolean parentOnly = CoaPatterns.PARENT_SNO.matcher(sNoBuf).matches() && resultBuf.isEmpty() && specBuf.isEmpty();
             if (!parentOnly || KEEP_PARENT_HEADERS) {
                 logger.info("Flushing final row after loop completion");
                 flushTestResult(testResultsOut, sNoBuf, testBuf, resultBuf, specBuf);
@@ -439,20 +379,20 @@ public class SecondTableExtractorService {
 
     private String sanitizeSno(String s) {
         if (s == null) return "";
-        String[] parts = s.trim().split("\\s+");
+        String[] parts = CoaPatterns.WHITESPACE.split(s.trim());
         for (String p : parts) {
-            if (p.matches("^(\\d+)(?:\\.\\d+)?$")) return p;
+            if (CoaPatterns.SNO_VALUE.matcher(p).matches()) return p;
         }
         return "";
     }
 
     private String extractTrailingFromSno(String s) {
         if (s == null) return "";
-        String[] parts = s.trim().split("\\s+");
+        String[] parts = CoaPatterns.WHITESPACE.split(s.trim());
         StringBuilder sb = new StringBuilder();
         boolean firstNumFound = false;
         for (String p : parts) {
-            if (!firstNumFound && p.matches("^(\\d+)(?:\\.\\d+)?$")) {
+            if (!firstNumFound && CoaPatterns.SNO_VALUE.matcher(p).matches()) {
                 firstNumFound = true;
                 continue;
             }
@@ -465,35 +405,13 @@ public class SecondTableExtractorService {
     }
 
     private String normalize(String text) {
-        if (text == null) return "";
-        String t = text.trim();
-        t = t.replaceAll("[:\\-]+$", "");
-        t = t.replaceAll("\\s+", " ");
-        t = t.replaceAll("\\(\\s+", "(").replaceAll("\\s+\\)", ")");
-        return t;
+        return CoaPatterns.normalizeCellText(text);
     }
 
     private String stripFooterFragments(String text) {
         if (text == null) return "";
-        String t = text;
-
-        t = t.replaceAll("(?i)\\s*Remarks:.*$", "");
-        t = t.replaceAll("(?i)\\s*Comment\\(s\\):.*$", "");
-        t = t.replaceAll("(?i)\\s*Checked [Bb]y.*$", "");
-        t = t.replaceAll("(?i)\\s*Approved [Bb]y.*$", "");
-        t = t.replaceAll("(?i)\\s*Checked [Oo]n.*$", "");
-        t = t.replaceAll("(?i)\\s*Approved [Oo]n.*$", "");
-        t = t.replaceAll("(?i)\\s*Printed [Bb]y:.*$", "");
-        t = t.replaceAll("(?i)\\s*Printed [Oo]n:.*$", "");
-        t = t.replaceAll("(?i)\\s*Copy [Nn]o\\.?:.*$", "");
-        t = t.replaceAll("(?i)\\s*Page [Nn]o\\.?:.*$", "");
-        t = t.replaceAll("\\s*Date:.*$", "");
-
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+(Pharma|Pharmaceuticals?)\\s+(Limited|Ltd\\.?|Pvt\\.?).*$", "");
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+,\\s*Plot\\s+(no\\.?|Nos?\\.?).*$", "");
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}\\s*$", "");
-        t = t.replaceAll("(?i)\\s*[A-Za-z\\s]+,\\s*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}.*$", "");
-
+        String t = CoaPatterns.FOOTER_LABEL_TAIL.matcher(text).replaceFirst("");
+        t = CoaPatterns.stripAddressTails(t);
         return t.trim();
     }
 
@@ -502,45 +420,17 @@ public class SecondTableExtractorService {
 
         if (l.isEmpty()) return false;
 
-        // Match person names like "John.Doe Smith" but NOT numbers like "10.85 and" or "49.87 mg"
-        if (l.matches("(?i).*[a-z]+\\.[a-z]+\\s+[a-z]+.*")) {
-            return true;
-        }
-
-        if (l.matches("(?i).*(jan|feb|mar|apr|may|jun|jul|aug|sep|oct|nov|dec)\\s+\\d{1,2}\\s+\\d{4}.*")) {
-            return true;
-        }
-
-        if (l.matches(".*\\d{1,2}:\\d{2}\\s*(am|pm).*")) {
-            return true;
-        }
-
         if (l.startsWith("remarks") || l.startsWith("comment(s)") ||
                 l.contains("checked by") || l.contains("approved by") ||
                 l.contains("checked on") || l.contains("approved on") ||
                 l.contains("printed by") || l.contains("printed on") ||
-                l.contains("copy no") || l.contains("page no") ||
-                l.matches(".*\\bdate:.*")) {
-            return true;
-        }
-
-        if (l.matches(".*\\bformat no\\..*") || l.matches(".*generated electronically.*")) {
-            return true;
-        }
-
-        if (l.matches("(?i).*(pharma|pharmaceuticals?)\\s+(limited|ltd\\.?|pvt\\.?).*")) {
-            return true;
-        }
-
-        if (l.matches("(?i).*plot\\s+(no\\.?|nos?\\.?|number).*")) {
-            return true;
-        }
-
-        if (l.matches(".*\\d{5,6}\\s*$")) {
+                l.contains("copy no") || l.contains("page no")) {
             return true;
         }
 
-        if (l.matches("(?i).*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}.*")) {
+        // Besides the common footer patterns this also matches person names like "John.Doe Smith"
+        // (but NOT numbers like "10.85 and" or "49.87 mg"), "Jan 12 2025" dates and clock times
+        if (CoaPatterns.FOOTER_LINE_WITH_SIGNATURES.matcher(l).find()) {
             return true;
         }
 
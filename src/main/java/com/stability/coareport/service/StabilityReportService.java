@@ -6,10 +6,15 @@ import com.stability.coareport.dto.StabilityReportResponse;
 import com.stability.coareport.entity.Report;
 import com.stability.coareport.entity.TestResult;
 import com.stability.coareport.repository.ReportRepository;
+import com.stability.coareport.repository.ReportSpecifications;
+import com.stability.coareport.util.SchedulePeriods;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -56,70 +61,43 @@ public class StabilityReportService {
 
     @Transactional(readOnly = true)
     public StabilityFilterOptionsResponse getFilterOptions() {
-        List<Report> allReports = reportRepository.findAll();
-
-        Set<String> productNames = new TreeSet<>();
-        Set<String> specifications = new TreeSet<>();
-        Set<String> batchNumbers = new TreeSet<>();
-        Set<String> storageConditions = new TreeSet<>();
-        Set<String> sampleOrientations = new TreeSet<>();
-        Set<String> descriptions = new TreeSet<>();
-        Set<String> schedulePeriods = new TreeSet<>(Comparator.comparingInt(this::parseSchedulePeriod));
-
-        for (Report report : allReports) {
-            if (report.getProductName() != null) productNames.add(report.getProductName());
-            if (report.getSpecification() != null) specifications.add(report.getSpecification());
-            if (report.getBatchNo() != null) batchNumbers.add(report.getBatchNo());
-            if (report.getStorageCondition() != null) storageConditions.add(report.getStorageCondition());
-            if (report.getSampleOrientation() != null) sampleOrientations.add(report.getSampleOrientation());
-            if (report.getDescription() != null) descriptions.add(report.getDescription());
-            if (report.getSchedulePeriod() != null) schedulePeriods.add(report.getSchedulePeriod());
-        }
-
         return new StabilityFilterOptionsResponse(
-                new ArrayList<>(productNames),
-                new ArrayList<>(specifications),
-                new ArrayList<>(batchNumbers),
-                new ArrayList<>(storageConditions),
-                new ArrayList<>(sampleOrientations),
-                new ArrayList<>(descriptions),
-                new ArrayList<>(schedulePeriods)
+                sorted(reportRepository.findDistinctProductNames()),
+                sorted(reportRepository.findDistinctSpecifications()),
+                sorted(reportRepository.findDistinctBatchNumbers()),
+                sorted(reportRepository.findDistinctStorageConditions()),
+                sorted(reportRepository.findDistinctSampleOrientations()),
+                sorted(reportRepository.findDistinctDescriptions()),
+                sortedByPeriod(reportRepository.findDistinctSchedulePeriods())
         );
     }
 
     @Transactional(readOnly = true)
     public StabilityFilterOptionsResponse getFilterOptionsForProduct(String productName) {
-        List<Report> productReports = reportRepository.findAll().stream()
-                .filter(report -> productName.equals(report.getProductName()))
-                .collect(Collectors.toList());
-
-        Set<String> specifications = new TreeSet<>();
-        Set<String> batchNumbers = new TreeSet<>();
-        Set<String> storageConditions = new TreeSet<>();
-        Set<String> sampleOrientations = new TreeSet<>();
-        Set<String> descriptions = new TreeSet<>();
-        Set<String> schedulePeriods = new TreeSet<>(Comparator.comparingInt(this::parseSchedulePeriod));
-
-        for (Report report : productReports) {
-            if (report.getSpecification() != null) specifications.add(report.getSpecification());
-            if (report.getBatchNo() != null) batchNumbers.add(report.getBatchNo());
-            if (report.getStorageCondition() != null) storageConditions.add(report.getStorageCondition());
-            if (report.getSampleOrientation() != null) sampleOrientations.add(report.getSampleOrientation());
-            if (report.getDescription() != null) descriptions.add(report.getDescription());
-            if (report.getSchedulePeriod() != null) schedulePeriods.add(report.getSchedulePeriod());
-        }
-
         return new StabilityFilterOptionsResponse(
                 List.of(productName),
-                new ArrayList<>(specifications),
-                new ArrayList<>(batchNumbers),
-                new ArrayList<>(storageConditions),
-                new ArrayList<>(sampleOrientations),
-                new ArrayList<>(descriptions),
-                new ArrayList<>(schedulePeriods)
+                sorted(reportRepository.findDistinctSpecificationsByProductName(productName)),
+                sorted(reportRepository.findDistinctBatchNumbersByProductName(productName)),
+                sorted(reportRepository.findDistinctStorageConditionsByProductName(productName)),
+                sorted(reportRepository.findDistinctPositionsByProductName(productName)),
+                sorted(reportRepository.findDistinctDescriptionsByProductName(productName)),
+                sortedByPeriod(reportRepository.findDistinctStationsByProductName(productName))
         );
     }
 
+    private static List<String> sorted(List<String> values) {
+        Set<String> set = new TreeSet<>();
+        values.stream().filter(Objects::nonNull).forEach(set::add);
+        return new ArrayList<>(set);
+    }
+
+    // Periods of equal rank ("6M", "6 Months") collapse to one entry, as the report columns do
+    private static List<String> sortedByPeriod(List<String> periods) {
+        Set<String> set = new TreeSet<>(Comparator.comparingInt(SchedulePeriods::rank));
+        periods.stream().filter(Objects::nonNull).forEach(set::add);
+        return new ArrayList<>(set);
+    }
+
     @Transactional(readOnly = true)
     public StabilityReportResponse generateStabilityReport(StabilityReportRequest request) {
         List<Report> reports = findReportsByFilters(request);
@@ -161,53 +139,36 @@ public class StabilityReportService {
         return new StabilityReportResponse(schedulePeriods, testResultRows, metadata, null);
     }
 
-    private List<Report> findReportsByFilters(StabilityReportRequest request) {
-        List<Report> reports = reportRepository.findAll();
+    private static final Sort BY_PERIOD = Sort.by("schedulePeriodRank", "id");
 
-        return reports.stream()
-                .filter(report -> matchesFilters(report, request))
-                .sorted(Comparator.comparing(Report::getSchedulePeriod, Comparator.nullsLast(
-                        Comparator.comparingInt(this::parseSchedulePeriod))))
-                .collect(Collectors.toList());
-    }
-
-    private boolean matchesFilters(Report report, StabilityReportRequest request) {
-        if (request.getProductName() != null && !request.getProductName().equals(report.getProductName())) {
-            return false;
-        }
-        if (request.getSpecification() != null && !request.getSpecification().isEmpty()
-                && !request.getSpecification().equals(report.getSpecification())) {
-            return false;
-        }
-        if (request.getBatchNo() != null && !request.getBatchNo().isEmpty()
-                && !request.getBatchNo().equals(report.getBatchNo())) {
-            return false;
-        }
-        if (request.getStorageCondition() != null && !request.getStorageCondition().isEmpty()
-                && !request.getStorageCondition().equals(report.getStorageCondition())) {
-            return false;
-        }
-        if (request.getSampleOrientation() != null && !request.getSampleOrientation().isEmpty()
-                && !request.getSampleOrientation().equals(report.getSampleOrientation())) {
-            return false;
-        }
-        if (request.getDescription() != null && !request.getDescription().isEmpty()
-                && !request.getDescription().equals(report.getDescription())) {
-            return false;
-        }
+    private List<Report> findReportsByFilters(StabilityReportRequest request) {
+        Specification<Report> spec = Specification.allOf(
+                ReportSpecifications.equalTo("productName", request.getProductName()),
+                ReportSpecifications.hasValue("specification", request.getSpecification()),
+                ReportSpecifications.hasValue("batchNo", request.getBatchNo()),
+                ReportSpecifications.hasValue("storageCondition", request.getStorageCondition()),
+                ReportSpecifications.hasValue("sampleOrientation", request.getSampleOrientation()),
+                ReportSpecifications.hasValue("description", request.getDescription()));
 
         // Cumulative period filtering: if a period is specified, include all periods up to and including that period
+        int cutoff = Integer.MAX_VALUE;
         if (request.getSchedulePeriod() != null && !request.getSchedulePeriod().isEmpty()) {
-            int requestedPeriodValue = parseSchedulePeriod(request.getSchedulePeriod());
-            int reportPeriodValue = parseSchedulePeriod(report.getSchedulePeriod());
-
-            // Include reports from Initial up to the requested period
-            if (reportPeriodValue > requestedPeriodValue) {
-                return false;
-            }
+            cutoff = SchedulePeriods.rank(request.getSchedulePeriod());
+            spec = spec.and(ReportSpecifications.schedulePeriodRankAtMost(cutoff));
         }
 
-        return true;
+        List<Report> reports = reportRepository.findAll(spec, BY_PERIOD);
+        if (reports.stream().noneMatch(report -> report.getSchedulePeriodRank() == null)) {
+            return reports;
+        }
+        // Reports the backfill has not reached yet: filter and order them by their period instead
+        int maxRank = cutoff;
+        return reports.stream()
+                .filter(report -> SchedulePeriods.rank(report.getSchedulePeriodRank(), report.getSchedulePeriod()) <= maxRank)
+                .sorted(Comparator.comparingInt((Report report) ->
+                                SchedulePeriods.rank(report.getSchedulePeriodRank(), report.getSchedulePeriod()))
+                        .thenComparing(Report::getId))
+                .collect(Collectors.toList());
     }
 
     private List<String> extractSchedulePeriods(List<Report> reports) {
@@ -215,46 +176,19 @@ public class StabilityReportService {
                 .map(Report::getSchedulePeriod)
                 .filter(Objects::nonNull)
                 .distinct()
-                .sorted(Comparator.comparingInt(this::parseSchedulePeriod))
+                .sorted(Comparator.comparingInt(SchedulePeriods::rank))
                 .collect(Collectors.toList());
     }
 
-    private int parseSchedulePeriod(String period) {
-        if (period == null || period.isEmpty()) return Integer.MAX_VALUE;
-
-        // Handle "Initial" as the first period (value = 0)
-        if (period.toUpperCase().contains("INITIAL")) {
-            return 0;
-        }
-
-        try {
-            String numPart = period.replaceAll("[^0-9]", "");
-            if (numPart.isEmpty()) return Integer.MAX_VALUE;
-
-            int value = Integer.parseInt(numPart);
-
-            if (period.toUpperCase().contains("M") && !period.toUpperCase().contains("MONTH")) {
-                return value;
-            } else if (period.toUpperCase().contains("Y")) {
-                return value * 12;
-            } else if (period.toUpperCase().contains("W")) {
-                return (int) (value * 0.23);
-            } else if (period.toUpperCase().contains("D")) {
-                return (int) (value * 0.033);
-            }
-            return value;
-        } catch (NumberFormatException e) {
-            return Integer.MAX_VALUE;
-        }
-    }
-
     private List<StabilityReportResponse.TestResultRow> buildTestResultRows(List<Report> reports, List<String> schedulePeriods) {
         Map<String, StabilityReportResponse.TestResultRow> testRowMap = new LinkedHashMap<>();
+        // Numeric values of the results in periodResults: test -> period -> value
+        Map<String, Map<String, Double>> periodValues = new HashMap<>();
 
         // Sort reports by schedule period to get the earliest report first (for serial number ordering)
         List<Report> sortedReports = reports.stream()
                 .sorted(Comparator.comparing(Report::getSchedulePeriod, Comparator.nullsLast(
-                        Comparator.comparingInt(this::parseSchedulePeriod))))
+                        Comparator.comparingInt(SchedulePeriods::rank))))
                 .collect(Collectors.toList());
 
         // Track which S.No values are already used from the first report
@@ -338,6 +272,8 @@ public class StabilityReportService {
                 StabilityReportResponse.TestResultRow row = testRowMap.get(testName);
                 if (schedulePeriod != null && !schedulePeriod.isEmpty()) {
                     row.getPeriodResults().put(schedulePeriod, result);
+                    periodValues.computeIfAbsent(testName, t -> new HashMap<>())
+                            .put(schedulePeriod, numericValue(testResult));
                     row.getPeriodSpecifications().put(schedulePeriod, specification);
                 }
             }
@@ -351,7 +287,7 @@ public class StabilityReportService {
             for (String period : schedulePeriods) {
                 String result = row.getPeriodResults().get(period);
                 if (result != null) {
-                    Double numericValue = extractNumericValue(result);
+                    Double numericValue = periodValues.getOrDefault(row.getTestName(), Map.of()).get(period);
                     if (numericValue != null) {
                         hasNumericValue = true;
                         chartData.add(new StabilityReportResponse.ChartDataPoint(period, numericValue, result));
@@ -420,20 +356,9 @@ public class StabilityReportService {
         return resultList;
     }
 
-    private Double extractNumericValue(String result) {
-        if (result == null || result.isEmpty()) {
-            return null;
-        }
-
-        try {
-            String cleaned = result.replaceAll("[^0-9.\\-]", "");
-            if (!cleaned.isEmpty()) {
-                return Double.parseDouble(cleaned);
-            }
-        } catch (NumberFormatException e) {
-        }
-
-        return null;
+    private static Double numericValue(TestResult testResult) {
+        BigDecimal value = testResult.numericResult();
+        return value != null ? value.doubleValue() : null;
     }
 
     @Transactional(readOnly = true)
@@ -444,17 +369,20 @@ public class StabilityReportService {
         }
 
         Map<String, List<Report>> batchReportsMap = new LinkedHashMap<>();
-        Set<String> allSchedulePeriods = new TreeSet<>(Comparator.comparingInt(this::parseSchedulePeriod));
+        Set<String> allSchedulePeriods = new TreeSet<>(Comparator.comparingInt(SchedulePeriods::rank));
+
+        // One query for all batches (test results included, ordered by period); split per batch below
+        List<Report> candidates = reportRepository.findAll(Specification.allOf(
+                ReportSpecifications.equalTo("productName", request.getProductName()),
+                ReportSpecifications.batchNoIn(batchNumbers),
+                ReportSpecifications.hasValue("specification", request.getSpecification()),
+                ReportSpecifications.hasValue("storageCondition", request.getStorageCondition()),
+                ReportSpecifications.hasValue("sampleOrientation", request.getSampleOrientation())), BY_PERIOD);
 
         for (String batchNumber : batchNumbers) {
-            StabilityReportRequest batchRequest = new StabilityReportRequest();
-            batchRequest.setProductName(request.getProductName());
-            batchRequest.setSpecification(request.getSpecification());
-            batchRequest.setBatchNo(batchNumber);
-            batchRequest.setStorageCondition(request.getStorageCondition());
-            batchRequest.setSampleOrientation(request.getSampleOrientation());
-
-            List<Report> batchReports = findReportsByFilters(batchRequest);
+            List<Report> batchReports = candidates.stream()
+                    .filter(report -> batchNumber.equals(report.getBatchNo()))
+                    .collect(Collectors.toList());
             batchReportsMap.put(batchNumber, batchReports);
 
             batchReports.stream()
@@ -511,6 +439,8 @@ public class StabilityReportService {
             List<String> batchNumbers) {
 
         Map<String, StabilityReportResponse.TestResultRow> testRowMap = new LinkedHashMap<>();
+        // Numeric values of the results in batchData: test -> batch -> period -> value
+        Map<String, Map<String, Map<String, Double>>> batchValues = new HashMap<>();
 
         // Track which S.No values are already used from the first report
         Set<String> usedSNos = new HashSet<>();
@@ -521,7 +451,7 @@ public class StabilityReportService {
             if (!firstBatchReports.isEmpty()) {
                 List<Report> sortedReports = firstBatchReports.stream()
                         .sorted(Comparator.comparing(Report::getSchedulePeriod, Comparator.nullsLast(
-                                Comparator.comparingInt(this::parseSchedulePeriod))))
+                                Comparator.comparingInt(SchedulePeriods::rank))))
                         .collect(Collectors.toList());
 
                 if (!sortedReports.isEmpty() && sortedReports.get(0).getTestResults() != null) {
@@ -619,6 +549,9 @@ public class StabilityReportService {
                     StabilityReportResponse.TestResultRow row = testRowMap.get(testName);
                     if (schedulePeriod != null && !schedulePeriod.isEmpty()) {
                         row.getBatchData().get(batchNumber).put(schedulePeriod, result);
+                        batchValues.computeIfAbsent(testName, t -> new HashMap<>())
+                                .computeIfAbsent(batchNumber, b -> new HashMap<>())
+                                .put(schedulePeriod, numericValue(testResult));
                     }
                 }
             }
@@ -627,15 +560,11 @@ public class StabilityReportService {
         for (StabilityReportResponse.TestResultRow row : testRowMap.values()) {
             boolean hasNumericValue = false;
 
-            for (String batchNumber : batchNumbers) {
-                Map<String, String> batchResults = row.getBatchData().get(batchNumber);
-                for (String result : batchResults.values()) {
-                    if (extractNumericValue(result) != null) {
-                        hasNumericValue = true;
-                        break;
-                    }
+            for (Map<String, Double> values : batchValues.getOrDefault(row.getTestName(), Map.of()).values()) {
+                if (values.values().stream().anyMatch(Objects::nonNull)) {
+                    hasNumericValue = true;
+                    break;
                 }
-                if (hasNumericValue) break;
             }
 
             row.setNumeric(hasNumericValue);
@@ -0,0 +1,135 @@
+package com.stability.coareport.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * Precompiled regular expressions shared by the CoA extractors. The parsers run these per row and
+ * per line, so none of them may be compiled inline via {@code String.matches} or {@code replaceAll}.
+ * <p>
+ * Patterns that were previously used as {@code matches(".*X.*")} are stored as {@code X} and must be
+ * used with {@link java.util.regex.Matcher#find()}.
+ */
+public final class CoaPatterns {
+
+    private CoaPatterns() {
+    }
+
+    public static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    public static final Pattern WHITESPACE_AND_DOTS = Pattern.compile("[\\s.]+");
+    public static final Pattern DIGIT = Pattern.compile("\\d");
+    public static final Pattern ENDS_WITH_DIGIT = Pattern.compile("\\d$");
+
+    // ---- Second table header / S.No column ----
+
+    public static final Pattern SNO_HEADER = Pattern.compile("s\\.?\\s*no");
+    public static final Pattern SNO_VALUE = Pattern.compile("^(\\d+)(?:\\.\\d+)?$");
+    public static final Pattern PARENT_SNO = Pattern.compile("^\\d+$");
+
+    // ---- First table fields ----
+
+    public static final Pattern STORAGE_CONDITION_EXACT = Pattern.compile("^\\d+C/\\d+%RH$");
+    public static final Pattern STORAGE_CONDITION_VARIANT = Pattern.compile("^\\d+°?C\\s*/\\s*\\d+%\\s*RH$");
+    public static final Pattern SCHEDULE_PERIOD = Pattern.compile("(?i)schedule\\s+period\\s+(.+?)(?=\\s+schedule\\s+date|$)");
+    public static final Pattern SCHEDULE_DATE = Pattern.compile("(?i)schedule\\s+date\\s+(.+)");
+    public static final Pattern PACKING_TYPE = Pattern.compile("(?i)packing\\s+type\\s+(.+?)(?=\\s+pack\\s+size|$)");
+    public static final Pattern PACK_SIZE = Pattern.compile("(?i)pack\\s+size\\s+(.+)");
+
+    // ---- Cell text normalization ----
+
+    public static final Pattern TRAILING_SEPARATORS = Pattern.compile("[:\\-]+$");
+    public static final Pattern SPACE_AFTER_OPEN_PAREN = Pattern.compile("\\(\\s+");
+    public static final Pattern SPACE_BEFORE_CLOSE_PAREN = Pattern.compile("\\s+\\)");
+
+    public static final Pattern DEGREE_LOOKALIKE = Pattern.compile("(\\d+)[^\\w\\s°](C|F)");
+    public static final Pattern CELSIUS_SIGN = Pattern.compile("℃");
+    public static final Pattern FAHRENHEIT_SIGN = Pattern.compile("℉");
+    public static final Pattern MISSING_DEGREE = Pattern.compile("(\\d+)([CF])/");
+
+    // ---- Footer detection and stripping ----
+
+    /**
+     * One pass over a lower-cased line that replaces the individual footer regexes of
+     * {@code isFooterLine}: date/format labels, company names, plot numbers and PIN codes.
+     */
+    public static final Pattern FOOTER_LINE = Pattern.compile(
+            "\\bdate:" +
+            "|\\bformat no\\." +
+            "|generated electronically" +
+            "|(?:pharma|pharmaceuticals?)\\s+(?:limited|ltd\\.?|pvt\\.?)" +
+            "|plot\\s+(?:no\\.?|nos?\\.?|number)" +
+            "|\\d{5,6}\\s*$" +
+            "|[a-z\\s]-\\s*\\d{5,6}",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * {@link #FOOTER_LINE} plus the signature/timestamp lines that appear between test-result rows:
+     * dotted user names, "Mon dd yyyy" dates and clock times.
+     */
+    public static final Pattern FOOTER_LINE_WITH_SIGNATURES = Pattern.compile(
+            FOOTER_LINE.pattern() +
+            "|[a-z]\\.[a-z]+\\s+[a-z]" +
+            "|(?:jan|feb|mar|apr|may|jun|jul|aug|sep|oct|nov|dec)\\s+\\d{1,2}\\s+\\d{4}" +
+            "|\\d{1,2}:\\d{2}\\s*(?:am|pm)",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Truncates a cell at the first footer label. "Date:" stays case-sensitive so that values such
+     * as "Expiry date: ..." inside a specification are kept.
+     */
+    public static final Pattern FOOTER_LABEL_TAIL = Pattern.compile(
+            "\\s*(?:Remarks:|Comment\\(s\\):|Checked by|Approved by|Checked on|Approved on" +
+            "|Printed by:|Printed on:|Copy no\\.?:|Page no\\.?:|(?-i:Date:)).*$",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * The footer regexes of the single-table CoA extractor ({@code COAExtractorAllPage119}) in one
+     * pass: {@link #FOOTER_LINE} without the "format no." and "generated electronically" labels,
+     * which that extractor never treated as footers.
+     */
+    public static final Pattern COA_FOOTER_LINE = Pattern.compile(
+            "\\bdate:" +
+            "|(?:pharma|pharmaceuticals?)\\s+(?:limited|ltd\\.?|pvt\\.?)" +
+            "|plot\\s+(?:no\\.?|nos?\\.?|number)" +
+            "|\\d{5,6}\\s*$" +
+            "|[a-z\\s]-\\s*\\d{5,6}",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * The labels {@code COAExtractorAllPage119} truncates cells at: only these four, all
+     * case-sensitive.
+     */
+    public static final Pattern COA_FOOTER_LABEL_TAIL = Pattern.compile(
+            "\\s*(?:Remarks:|Checked by|Approved by|Date:).*$");
+
+    public static final Pattern COMPANY_NAME_TAIL = Pattern.compile(
+            "(?i)\\s*[A-Za-z\\s]+(Pharma|Pharmaceuticals?)\\s+(Limited|Ltd\\.?|Pvt\\.?).*$");
+    public static final Pattern PLOT_ADDRESS_TAIL = Pattern.compile(
+            "(?i)\\s*[A-Za-z\\s]+,\\s*Plot\\s+(no\\.?|Nos?\\.?).*$");
+    public static final Pattern CITY_PIN_TAIL = Pattern.compile(
+            "(?i)\\s*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}\\s*$");
+    public static final Pattern CITY_STATE_PIN_TAIL = Pattern.compile(
+            "(?i)\\s*[A-Za-z\\s]+,\\s*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}.*$");
+
+    /**
+     * Removes the company/address tails that leak into the last rows of a page. Applied in order,
+     * after {@link #FOOTER_LABEL_TAIL}.
+     */
+    public static String stripAddressTails(String text) {
+        String t = COMPANY_NAME_TAIL.matcher(text).replaceAll("");
+        t = PLOT_ADDRESS_TAIL.matcher(t).replaceAll("");
+        t = CITY_PIN_TAIL.matcher(t).replaceAll("");
+        return CITY_STATE_PIN_TAIL.matcher(t).replaceAll("");
+    }
+
+    /**
+     * Trims, drops trailing ':'/'-' and collapses whitespace, including inside parentheses.
+     */
+    public static String normalizeCellText(String text) {
+        if (text == null) return "";
+        String t = text.trim();
+        t = TRAILING_SEPARATORS.matcher(t).replaceAll("");
+        t = WHITESPACE.matcher(t).replaceAll(" ");
+        t = SPACE_AFTER_OPEN_PAREN.matcher(t).replaceAll("(");
+        return SPACE_BEFORE_CLOSE_PAREN.matcher(t).replaceAll(")");
+    }
+}
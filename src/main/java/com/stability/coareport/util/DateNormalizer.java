@@ -0,0 +1,110 @@
+package com.stability.coareport.util;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns the free-text dates found on CoAs ({@code 15-DEC-2024}, {@code 14-Jul-2023},
+ * {@code 15/12/2024}, {@code 2024-12-15}, {@code JAN-2023}, ...) into {@link LocalDate}s.
+ * <p>
+ * Each supported shape is a precompiled pattern and the fields are read straight from its groups,
+ * so unparseable input costs a few failed regex matches instead of one exception per formatter.
+ * Month names are matched case-insensitively in English. Numeric dates are read day first, as
+ * printed on the reports. Two-digit years are taken as 20xx.
+ */
+public final class DateNormalizer {
+
+    private DateNormalizer() {
+    }
+
+    private static final Pattern DAY_MONTH_YEAR =
+            Pattern.compile("(\\d{1,2})[-/. ]+([A-Za-z]{3,9}|\\d{1,2})[-/., ]+(\\d{4}|\\d{2})");
+    private static final Pattern YEAR_MONTH_DAY = Pattern.compile("(\\d{4})[-/.](\\d{1,2})[-/.](\\d{1,2})");
+    private static final Pattern MONTH_YEAR = Pattern.compile("([A-Za-z]{3,9}|\\d{1,2})[-/., ]+(\\d{4})");
+
+    private static final String[] MONTHS = {
+            "january", "february", "march", "april", "may", "june",
+            "july", "august", "september", "october", "november", "december"
+    };
+
+    /**
+     * Parses {@code raw}, or returns {@code null} when it is not a recognisable date. Month-year
+     * values resolve to the first of the month.
+     */
+    public static LocalDate parse(String raw) {
+        return parse(raw, false);
+    }
+
+    /**
+     * Like {@link #parse(String)}, but month-year values resolve to the last day of the month, which
+     * is how expiry dates without a day are meant.
+     */
+    public static LocalDate parseExpiry(String raw) {
+        return parse(raw, true);
+    }
+
+    private static LocalDate parse(String raw, boolean endOfMonth) {
+        if (raw == null) {
+            return null;
+        }
+        String s = raw.trim();
+        // Shortest shape is "1/2024", longest "30 September, 2024"
+        if (s.length() < 6 || s.length() > 20 || !Character.isLetterOrDigit(s.charAt(0))
+                || !Character.isDigit(s.charAt(s.length() - 1))) {
+            return null;
+        }
+
+        try {
+            Matcher m;
+            if (Character.isDigit(s.charAt(0))) {
+                m = YEAR_MONTH_DAY.matcher(s);
+                if (m.matches()) {
+                    return LocalDate.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)),
+                            Integer.parseInt(m.group(3)));
+                }
+                m = DAY_MONTH_YEAR.matcher(s);
+                if (m.matches()) {
+                    int month = month(m.group(2));
+                    return month < 0 ? null
+                            : LocalDate.of(year(m.group(3)), month, Integer.parseInt(m.group(1)));
+                }
+            }
+            m = MONTH_YEAR.matcher(s);
+            if (m.matches()) {
+                int month = month(m.group(1));
+                if (month < 0) {
+                    return null;
+                }
+                YearMonth yearMonth = YearMonth.of(Integer.parseInt(m.group(2)), month);
+                return endOfMonth ? yearMonth.atEndOfMonth() : yearMonth.atDay(1);
+            }
+        } catch (DateTimeException e) {
+            // Right shape, impossible value (31-02-2024, month 13)
+        }
+        return null;
+    }
+
+    /** 1-12, or -1 when {@code text} is neither a month number nor a month name (or its abbreviation). */
+    private static int month(String text) {
+        if (Character.isDigit(text.charAt(0))) {
+            int month = Integer.parseInt(text);
+            return month >= 1 && month <= 12 ? month : -1;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (MONTHS[i].startsWith(lower)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int year(String text) {
+        int year = Integer.parseInt(text);
+        return text.length() == 2 ? 2000 + year : year;
+    }
+}
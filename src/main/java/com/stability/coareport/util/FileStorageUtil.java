@@ -1,11 +1,20 @@
 package com.stability.coareport.util;
 
+import org.springframework.web.multipart.MultipartFile;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 
 public class FileStorageUtil {
 
@@ -33,6 +42,80 @@ public class FileStorageUtil {
         }
     }
 
+    /**
+     * Streams the uploaded part to {@code target} without materialising it as a byte array.
+     */
+    public static Path saveMultipartFile(MultipartFile file, Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        if (directory != null && !Files.exists(directory)) {
+            Files.createDirectories(directory);
+        }
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+
+    /**
+     * Same as {@link #saveMultipartFile} but also returns the hex SHA-256 of the content, computed
+     * while the part is streamed to disk.
+     */
+    public static String saveMultipartFileAndHash(MultipartFile file, Path target) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return saveStreamAndHash(in, target, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Copies {@code in} to {@code target} and returns the hex SHA-256 of what was copied. The stream
+     * is not closed, so this also works for the current entry of a {@link java.util.zip.ZipInputStream}.
+     * Copies larger than {@code maxBytes} are aborted and the partial file removed.
+     */
+    public static String saveStreamAndHash(InputStream in, Path target, long maxBytes) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        if (directory != null && !Files.exists(directory)) {
+            Files.createDirectories(directory);
+        }
+        MessageDigest digest = sha256Digest();
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new IOException("File exceeds the maximum size of " + maxBytes + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String sha256(Path file) throws IOException {
+        return sha256(Files.newInputStream(file));
+    }
+
+    private static String sha256(InputStream source) throws IOException {
+        MessageDigest digest = sha256Digest();
+        try (InputStream in = new DigestInputStream(source, digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     private static String sanitizeFolderName(String name) {
         if (name == null || name.trim().isEmpty()) {
             return "unknown";
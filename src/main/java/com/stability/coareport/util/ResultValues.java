@@ -0,0 +1,105 @@
+package com.stability.coareport.util;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Reads the free-text test results found on CoAs ({@code 98.7}, {@code 0.12%}, {@code < 0.05},
+ * {@code NMT 0.5}, {@code BQL}, {@code Complies}, ...). Test results store both parts
+ * ({@code TestResult.resultValue}, {@code TestResult.resultQualifier}) so analytics do not have to
+ * parse the text again.
+ * <p>
+ * The value is what the analytics have always used: the result with everything except digits,
+ * {@code .} and {@code -} dropped, when that is a number. The qualifier says how to read it.
+ */
+public final class ResultValues {
+
+    private ResultValues() {
+    }
+
+    /** A plain number. */
+    public static final String EQUAL = "=";
+    public static final String LESS = "<";
+    public static final String LESS_OR_EQUAL = "<=";
+    public static final String GREATER = ">";
+    public static final String GREATER_OR_EQUAL = ">=";
+    /** Below the quantification limit. */
+    public static final String BQL = "BQL";
+    /** Not detected. */
+    public static final String NOT_DETECTED = "ND";
+    /** A pass/fail result: complies, conforms. */
+    public static final String COMPLIES = "COMPLIES";
+    /** Any other text without a number. */
+    public static final String TEXT = "TEXT";
+    /** No result. */
+    public static final String NONE = "NONE";
+
+    /**
+     * The numeric value of {@code raw}, or {@code null} when it has none.
+     */
+    public static BigDecimal value(String raw) {
+        if (raw == null || raw.isEmpty()) {
+            return null;
+        }
+        StringBuilder cleaned = null;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '.' || c == '-') {
+                if (cleaned == null) {
+                    cleaned = new StringBuilder(raw.length() - i);
+                }
+                cleaned.append(c);
+            }
+        }
+        if (cleaned == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(cleaned.toString());
+        } catch (NumberFormatException e) {
+            // "1.2.3", "-", "2023-01-05"
+            return null;
+        }
+    }
+
+    /**
+     * How {@code raw} qualifies its value; one of the constants above, never {@code null}.
+     */
+    public static String qualifier(String raw) {
+        String s = raw != null ? raw.trim().toUpperCase(Locale.ROOT) : "";
+        if (s.isEmpty()) {
+            return NONE;
+        }
+        if (s.contains("BQL") || s.contains("BLQ") || s.contains("BELOW QUANTIFICATION") || s.contains("BELOW LOQ")) {
+            return BQL;
+        }
+        if (s.equals("ND") || s.startsWith("ND ") || s.startsWith("N.D") || s.contains("NOT DETECTED")
+                || s.contains("BDL")) {
+            return NOT_DETECTED;
+        }
+        if (s.startsWith("<=") || s.startsWith("\u2264") || s.startsWith("NMT")) {
+            return LESS_OR_EQUAL;
+        }
+        if (s.startsWith(">=") || s.startsWith("\u2265") || s.startsWith("NLT")) {
+            return GREATER_OR_EQUAL;
+        }
+        if (s.startsWith("<")) {
+            return LESS;
+        }
+        if (s.startsWith(">")) {
+            return GREATER;
+        }
+        if (s.contains("COMPLIES") || s.contains("CONFORMS")) {
+            return COMPLIES;
+        }
+        return value(raw) != null ? EQUAL : TEXT;
+    }
+
+    /**
+     * The stored value of a result, or the value parsed from its text when it was saved before the
+     * parsed columns existed (its qualifier is still {@code null}).
+     */
+    public static BigDecimal valueOf(String raw, BigDecimal storedValue, String storedQualifier) {
+        return storedQualifier != null ? storedValue : value(raw);
+    }
+}
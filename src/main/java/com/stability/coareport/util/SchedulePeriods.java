@@ -0,0 +1,54 @@
+package com.stability.coareport.util;
+
+/**
+ * Orders stability schedule periods ("Initial", "3M", "6 Months", "1Y", ...) by their approximate
+ * length in months. Reports store the rank ({@code Report.schedulePeriodRank}) so period ordering
+ * and the cumulative "up to period X" filter can run in the database.
+ */
+public final class SchedulePeriods {
+
+    private SchedulePeriods() {
+    }
+
+    /**
+     * Months for the period, 0 for "Initial", and {@link Integer#MAX_VALUE} for missing or
+     * unrecognised periods so they sort last.
+     */
+    public static int rank(String period) {
+        if (period == null || period.isEmpty()) return Integer.MAX_VALUE;
+
+        // Handle "Initial" as the first period (value = 0)
+        if (period.toUpperCase().contains("INITIAL")) {
+            return 0;
+        }
+
+        try {
+            String numPart = period.replaceAll("[^0-9]", "");
+            if (numPart.isEmpty()) return Integer.MAX_VALUE;
+
+            int value = Integer.parseInt(numPart);
+
+            if (period.toUpperCase().contains("M") && !period.toUpperCase().contains("MONTH")) {
+                return value;
+            } else if (period.toUpperCase().contains("Y")) {
+                return value * 12;
+            } else if (period.toUpperCase().contains("W")) {
+                return (int) (value * 0.23);
+            } else if (period.toUpperCase().contains("D")) {
+                return (int) (value * 0.033);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * The rank stored on a report, or {@link #rank(String)} of its period if there is none yet:
+     * reports saved before the column existed keep a null rank until
+     * {@code ReportDerivedColumnsBackfill} has reached them.
+     */
+    public static int rank(Integer storedRank, String period) {
+        return storedRank != null ? storedRank : rank(period);
+    }
+}
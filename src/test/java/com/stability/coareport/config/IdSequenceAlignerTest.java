@@ -0,0 +1,108 @@
+package com.stability.coareport.config;
+
+import com.stability.coareport.entity.Branch;
+import com.stability.coareport.entity.Report;
+import com.stability.coareport.entity.TestResult;
+import com.stability.coareport.repository.BranchRepository;
+import com.stability.coareport.repository.CompanyRepository;
+import com.stability.coareport.repository.ReportRepository;
+import com.stability.coareport.repository.TestResultRepository;
+import com.stability.coareport.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tables filled while ids were IDENTITY columns: the aligner has to move the pooled sequences past
+ * their ids before JPA inserts anything.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import({AuditorConfig.class, IdSequenceAligner.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // ALTER SEQUENCE commits
+class IdSequenceAlignerTest {
+
+    @Autowired
+    private IdSequenceAligner aligner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private TestResultRepository testResultRepository;
+
+    private Branch branch;
+
+    @BeforeEach
+    void setUp() {
+        branch = branchRepository.save(TestData.branch(companyRepository.save(TestData.company())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM test_results");
+        jdbcTemplate.update("DELETE FROM reports");
+        branchRepository.deleteAll();
+        companyRepository.deleteAll();
+    }
+
+    @Test
+    void newRowsGetIdsAboveThoseAssignedUnderIdentity() {
+        insertLegacyRows(130, 400);
+
+        aligner.align();
+
+        Report report = reportRepository.save(TestData.report(branch, "Paracetamol", "B001", "3M"));
+        List<TestResult> results = testResultRepository.saveAll(TestData.results(report, 120));
+
+        assertThat(report.getId()).isGreaterThan(130L);
+        assertThat(results).allSatisfy(result -> assertThat(result.getId()).isGreaterThan(400L));
+        assertThat(reportRepository.count()).isEqualTo(131);
+        assertThat(testResultRepository.count()).isEqualTo(520);
+    }
+
+    @Test
+    void sequenceAheadOfTheTableIsLeftAlone() {
+        insertLegacyRows(10, 10);
+        jdbcTemplate.execute("ALTER SEQUENCE reports_seq RESTART WITH 10000");
+
+        aligner.align();
+
+        Long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR reports_seq", Long.class);
+        assertThat(next).isGreaterThan(10000L);
+    }
+
+    private void insertLegacyRows(int reports, int results) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (long id = 1; id <= reports; id++) {
+            jdbcTemplate.update("INSERT INTO reports (id, branch_id, product_name, batch_no, created_at) VALUES (?, ?, ?, ?, ?)",
+                    id, branch.getId(), "Legacy", "L" + id, now);
+        }
+        for (long id = 1; id <= results; id++) {
+            jdbcTemplate.update("INSERT INTO test_results (id, report_id, test, created_at) VALUES (?, ?, ?, ?)",
+                    id, (id % reports) + 1, "Assay", now);
+        }
+    }
+}
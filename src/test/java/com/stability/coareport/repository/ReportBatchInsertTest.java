@@ -0,0 +1,80 @@
+package com.stability.coareport.repository;
+
+import com.stability.coareport.config.AuditorConfig;
+import com.stability.coareport.entity.Branch;
+import com.stability.coareport.entity.Report;
+import com.stability.coareport.support.JdbcRoundTrips;
+import com.stability.coareport.support.JdbcRoundTrips.RoundTrip;
+import com.stability.coareport.support.TestData;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Saving a report with its test results costs a few sequence calls and one INSERT per JDBC batch,
+ * not one round trip per row.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import({AuditorConfig.class, JdbcRoundTrips.class})
+class ReportBatchInsertTest {
+
+    private static final int RESULTS = 120;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private TestResultRepository testResultRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Branch branch;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        branch = entityManager.persist(TestData.branch(entityManager.persist(TestData.company())));
+        entityManager.flush();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        JdbcRoundTrips.clear();
+    }
+
+    @Test
+    void reportWith120ResultsIsInsertedInBatches() {
+        Report report = reportRepository.save(TestData.report(branch, "Paracetamol", "B001", "3M"));
+        testResultRepository.saveAll(TestData.results(report, RESULTS));
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(RESULTS + 1);
+        assertThat(JdbcRoundTrips.startingWith("insert into reports")).hasSize(1);
+        assertThat(JdbcRoundTrips.startingWith("insert into test_results"))
+                .as("one INSERT round trip per batch of %d", BATCH_SIZE)
+                .extracting(RoundTrip::rows)
+                .containsExactly(50, 50, 20);
+
+        // One call per block of 50 ids, plus one when a generator starts from the sequence's initial value
+        assertThat(JdbcRoundTrips.containing("reports_seq")).hasSizeLessThanOrEqualTo(2);
+        assertThat(JdbcRoundTrips.containing("test_results_seq")).hasSizeLessThanOrEqualTo(4);
+
+        assertThat(JdbcRoundTrips.startingWith("update")).as("no rewrite of the new rows").isEmpty();
+        assertThat(JdbcRoundTrips.roundTrips())
+                .as("120 results must not cost 120 round trips")
+                .hasSizeLessThanOrEqualTo(10);
+    }
+}
@@ -0,0 +1,73 @@
+package com.stability.coareport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stability.coareport.dto.ParsedPdfData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A node that did not stage a preview's PDF restores it from the table, byte for byte.
+ */
+@DataJpaTest(showSql = false, properties = "preview.store.type=database")
+@ActiveProfiles("test")
+@Import({DatabasePreviewStore.class, DatabasePreviewStoreTest.Beans.class})
+class DatabasePreviewStoreTest {
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class Beans {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @Autowired
+    private DatabasePreviewStore store;
+
+    @TempDir
+    Path stagingDir;
+
+    @Test
+    void stagedPdfIsRestoredFromTheTable() throws IOException {
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(content);
+        Path pdf = Files.write(stagingDir.resolve("preview-1.pdf"), content);
+        ParsedPdfData data = new ParsedPdfData();
+        data.setProductName("Paracetamol");
+
+        store.put("preview-1", "coa.pdf", pdf, data);
+        Files.delete(pdf);
+
+        assertThat(store.localPdf("preview-1")).contains(pdf);
+        assertThat(Files.readAllBytes(pdf)).isEqualTo(content);
+        assertThat(store.get("preview-1")).hasValueSatisfying(preview -> {
+            assertThat(preview.fileName).isEqualTo("coa.pdf");
+            assertThat(preview.data.getProductName()).isEqualTo("Paracetamol");
+        });
+    }
+
+    @Test
+    void unknownPreviewHasNoPdf() {
+        assertThat(store.localPdf("missing")).isEmpty();
+    }
+}
@@ -0,0 +1,112 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.config.AuditorConfig;
+import com.stability.coareport.entity.Branch;
+import com.stability.coareport.entity.Report;
+import com.stability.coareport.entity.TestResult;
+import com.stability.coareport.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rollups kept up to date through deltas hold the same counts a full rebuild computes from the
+ * test results.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import({AuditorConfig.class, OosRollupService.class})
+class OosRollupServiceTest {
+
+    @Autowired
+    private OosRollupService oosRollupService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Report> reports = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        Branch branch = entityManager.persist(TestData.branch(entityManager.persist(TestData.company())));
+        // Two reports of one product on different days, one of another product
+        reports.add(report(branch, "Paracetamol", "B001", "OOS", "IN_SPEC", null));
+        reports.add(report(branch, "Paracetamol", "B002", "OOS_JUSTIFIED", "OOS", "OOS_WARNING"));
+        reports.add(report(branch, "Ibuprofen", "B001", "IN_SPEC", null, "OOS"));
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE reports SET created_at = ? WHERE id = ?",
+                LocalDateTime.now().minusDays(1), reports.get(1).getId());
+        entityManager.clear();
+        reports.replaceAll(report -> entityManager.find(Report.class, report.getId()));
+    }
+
+    @Test
+    void newResultsMatchARebuild() {
+        reports.forEach(report -> oosRollupService.recordNewResults(report, report.getTestResults()));
+
+        assertThat(rollups()).hasSize(9).isEqualTo(rebuilt());
+    }
+
+    @Test
+    void statusChangesMatchARebuild() {
+        reports.forEach(report -> oosRollupService.recordNewResults(report, report.getTestResults()));
+
+        Report report = reports.get(1);
+        OosRollupService.Changes changes = new OosRollupService.Changes();
+        String[] newStatuses = {"OOS", "OOS_JUSTIFIED", null};
+        for (int i = 0; i < newStatuses.length; i++) {
+            TestResult result = report.getTestResults().get(i);
+            changes.statusChanged(result.getTest(), result.getOosStatus(), newStatuses[i]);
+            result.setOosStatus(newStatuses[i]);
+        }
+        entityManager.flush();
+        oosRollupService.apply(report, changes);
+
+        List<String> afterDeltas = rollups();
+        assertThat(afterDeltas).contains("Paracetamol Test 1 -1d total=1 oos=1 justified=0",
+                "Paracetamol Test 2 -1d total=1 oos=0 justified=1");
+        assertThat(afterDeltas).isEqualTo(rebuilt());
+    }
+
+    /**
+     * Results "Test 1".."Test n" with the given OOS statuses.
+     */
+    private Report report(Branch branch, String product, String batchNo, String... statuses) {
+        Report report = TestData.report(branch, product, batchNo, "3M");
+        List<TestResult> results = TestData.results(report, statuses.length);
+        for (int i = 0; i < statuses.length; i++) {
+            results.get(i).setOosStatus(statuses[i]);
+        }
+        return entityManager.persist(report);
+    }
+
+    private List<String> rebuilt() {
+        oosRollupService.rebuild();
+        return rollups();
+    }
+
+    private List<String> rollups() {
+        Date today = Date.valueOf(LocalDate.now());
+        return jdbcTemplate.query("SELECT product_name, test_name, rollup_date, total_count, oos_count, " +
+                        "oos_justified_count FROM oos_daily_rollups ORDER BY product_name, test_name, rollup_date",
+                (rs, row) -> rs.getString(1) + " " + rs.getString(2) + " "
+                        + (rs.getDate(3).equals(today) ? "0d" : "-1d")
+                        + " total=" + rs.getInt(4) + " oos=" + rs.getInt(5) + " justified=" + rs.getInt(6));
+    }
+}
@@ -0,0 +1,92 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.exception.PdfParseAbortedException;
+import com.stability.coareport.exception.PdfParseAbortedException.Reason;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ParseBudgetTest {
+
+    private static final int MB = 1 << 20;
+    private static final int PAGES = 8;
+
+    // Both documents' pages run on the same pool workers, as they do in the application
+    private final PdfPageExecutor pool = new PdfPageExecutor(true, 2, 2);
+    private final ExecutorService documentA = Executors.newSingleThreadExecutor();
+    private final ExecutorService documentB = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void requireAllocationCounters() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+    }
+
+    @AfterEach
+    void shutDown() {
+        documentA.shutdownNow();
+        documentB.shutdownNow();
+    }
+
+    @Test
+    void allocationOfAnotherDocumentOnTheSameWorkersIsNotCharged() throws Exception {
+        ParseBudget small = on(documentA, () -> budget("a.pdf", 32L * MB));
+        on(documentA, () -> pages(small, 64 * 1024));
+
+        // Warms every worker up with 64 MB for the other document between two of a.pdf's passes
+        ParseBudget large = on(documentB, () -> budget("b.pdf", 0));
+        assertThat(on(documentB, () -> pages(large, 8 * MB))).isEqualTo(PAGES * 8L * MB);
+
+        assertThat(on(documentA, () -> pages(small, 64 * 1024))).isEqualTo(PAGES * 64L * 1024);
+        on(documentA, () -> {
+            small.checkpoint();
+            return null;
+        });
+    }
+
+    @Test
+    void allocationOfTheDocumentOnPoolWorkersIsCharged() throws Exception {
+        ParseBudget budget = on(documentB, () -> budget("b.pdf", 32L * MB));
+
+        assertThatThrownBy(() -> on(documentB, () -> pages(budget, 8 * MB)))
+                .isInstanceOfSatisfying(PdfParseAbortedException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(Reason.MEMORY));
+    }
+
+    private static ParseBudget budget(String name, long maxAllocatedBytes) {
+        return new ParseBudget(name, ParseProgressListener.NONE, 0, maxAllocatedBytes, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Allocates {@code bytesPerPage} in each page task on the pool and checkpoints after it, the
+     * way the parsers do.
+     */
+    private long pages(ParseBudget budget, int bytesPerPage) throws Exception {
+        List<byte[]> pages = pool.map(PAGES, page -> {
+            byte[] data = new byte[bytesPerPage];
+            budget.checkpoint();
+            return data;
+        }, budget);
+        return pages.stream().mapToLong(page -> page.length).sum();
+    }
+
+    private static <T> T on(ExecutorService owner, Callable<T> work) throws Exception {
+        try {
+            return owner.submit(work).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.service.PdfLayout.Cell;
+import com.stability.coareport.service.PdfLayout.Page;
+import com.stability.coareport.service.PdfLayout.Row;
+import com.stability.coareport.support.SyntheticCoaPdfs;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The layout of the synthetic CoA, cell by cell (text, and x and row y to the bit), is the one the
+ * original map-and-comparator row grouping produced, whether pages are stripped sequentially or
+ * in parallel page ranges. Glyph widths only show in where cells split, so a second document sets
+ * words just under and just over half a space apart.
+ */
+class PdfLayoutExtractorGoldenTest {
+
+    private static final int PAGES = 12;
+
+    private static Path pdf;
+
+    @BeforeAll
+    static void createPdf() throws IOException {
+        SyntheticCoaPdfs.quietLogging();
+        pdf = SyntheticCoaPdfs.create(PAGES);
+    }
+
+    @Test
+    void sequentialLayoutMatchesTheReferenceGrouping() throws IOException {
+        List<String> expected = dump(referenceLayout(pdf));
+
+        List<String> actual = dump(new PdfLayoutExtractor(PdfPageExecutor.sequential()).extract(pdf));
+
+        assertThat(expected).hasSizeGreaterThan(PAGES * 40);
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void cellSplitsAroundHalfASpaceMatchTheReferenceGrouping(@TempDir Path dir) throws IOException {
+        Path spaced = spacedWordsPdf(dir.resolve("spaced.pdf"));
+
+        List<String> expected = dump(referenceLayout(spaced));
+
+        assertThat(expected).hasSizeGreaterThan(10);
+        assertThat(dump(new PdfLayoutExtractor(PdfPageExecutor.sequential()).extract(spaced)))
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void parallelLayoutMatchesTheSequentialOne() throws IOException {
+        PdfPageExecutor parallel = new PdfPageExecutor(true, 2, 4);
+        assertThat(parallel.isParallel(PAGES)).isTrue();
+
+        List<String> sequential = dump(new PdfLayoutExtractor(PdfPageExecutor.sequential()).extract(pdf));
+        List<String> actual = dump(new PdfLayoutExtractor(parallel).extract(pdf));
+
+        assertThat(actual).containsExactlyElementsOf(sequential);
+    }
+
+    /**
+     * One line per cell: page, row, row y and cell x as raw float bits, and the text.
+     */
+    private static List<String> dump(PdfLayout layout) {
+        List<String> lines = new ArrayList<>();
+        for (int p = 0; p < layout.getPages().size(); p++) {
+            List<Row> rows = layout.getPages().get(p).rows;
+            for (int r = 0; r < rows.size(); r++) {
+                Row row = rows.get(r);
+                for (Cell cell : row.cells) {
+                    lines.add(p + "/" + r + " y=" + Integer.toHexString(Float.floatToIntBits(row.y))
+                            + " x=" + Integer.toHexString(Float.floatToIntBits(cell.x)) + " " + cell.text);
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Rows of words separated by 0.3 to 1.0 space widths, in two font sizes, with row baselines
+     * either side of a rounding boundary.
+     */
+    private static Path spacedWordsPdf(Path file) throws IOException {
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        float[] gaps = {0.3f, 0.45f, 0.49f, 0.51f, 0.55f, 0.7f, 1.0f};
+        String[] words = {"Assay", "99.2%", "NMT", "2.0%", "Complies", "Q", "(by", "HPLC)"};
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            try (PDPageContentStream out = new PDPageContentStream(document, page)) {
+                float y = 780.49f;
+                for (float size : new float[]{9f, 11f}) {
+                    float space = font.getStringWidth(" ") / 1000f * size;
+                    for (float gap : gaps) {
+                        float x = 40f;
+                        for (String word : words) {
+                            out.beginText();
+                            out.setFont(font, size);
+                            out.newLineAtOffset(x, y);
+                            out.showText(word);
+                            out.endText();
+                            x += font.getStringWidth(word) / 1000f * size + gap * space;
+                        }
+                        y -= 20.02f;
+                    }
+                }
+            }
+            document.save(file.toFile());
+        }
+        return file;
+    }
+
+    private static PdfLayout referenceLayout(Path pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf.toFile())) {
+            ReferenceStripper stripper = new ReferenceStripper();
+            stripper.writeText(document, new StringWriter());
+            return stripper.toLayout();
+        }
+    }
+
+    /**
+     * The row grouping {@link PdfLayoutExtractor} used before it moved to reusable primitive
+     * buffers, kept verbatim as the reference.
+     */
+    private static class ReferenceStripper extends PDFTextStripper {
+        private final List<Page> pages = new ArrayList<>();
+        private List<Row> currentRows;
+
+        ReferenceStripper() throws IOException {
+            super();
+            setSortByPosition(true);
+        }
+
+        PdfLayout toLayout() {
+            flushPage();
+            return new PdfLayout(pages);
+        }
+
+        private void flushPage() {
+            if (currentRows != null) {
+                pages.add(new Page(currentRows));
+                currentRows = null;
+            }
+        }
+
+        @Override
+        protected void startPage(PDPage page) throws IOException {
+            flushPage();
+            currentRows = new ArrayList<>();
+            super.startPage(page);
+        }
+
+        @Override
+        protected void writeString(String string, List<TextPosition> textPositions) throws IOException {
+            if (currentRows == null || textPositions.isEmpty()) return;
+
+            Map<Integer, List<TextPosition>> lineBuckets = new LinkedHashMap<>();
+            for (TextPosition tp : textPositions) {
+                int key = Math.round(tp.getYDirAdj());
+                lineBuckets.computeIfAbsent(key, k -> new ArrayList<>()).add(tp);
+            }
+
+            for (List<TextPosition> line : lineBuckets.values()) {
+                line.sort(Comparator.comparing(TextPosition::getXDirAdj));
+                float y = line.get(0).getYDirAdj();
+                List<Cell> cells = new ArrayList<>();
+
+                StringBuilder word = new StringBuilder();
+                float wordStartX = -1f;
+                float lastRight = -1f;
+
+                for (TextPosition tp : line) {
+                    float x = tp.getXDirAdj();
+                    float right = x + tp.getWidth();
+                    String ch = tp.getUnicode();
+
+                    if (lastRight >= 0) {
+                        float gap = x - lastRight;
+                        if (gap > tp.getWidthOfSpace() / 2.0) {
+                            if (word.length() > 0) {
+                                cells.add(new Cell(wordStartX >= 0 ? wordStartX : x, word.toString().trim()));
+                                word.setLength(0);
+                            }
+                            wordStartX = x;
+                        }
+                    } else {
+                        wordStartX = x;
+                    }
+
+                    word.append(ch);
+                    lastRight = right;
+                }
+
+                if (word.length() > 0) {
+                    cells.add(new Cell(wordStartX >= 0 ? wordStartX : 0f, word.toString().trim()));
+                }
+
+                if (!cells.isEmpty()) currentRows.add(new Row(y, cells));
+            }
+        }
+    }
+}
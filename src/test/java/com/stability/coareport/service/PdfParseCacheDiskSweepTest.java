@@ -0,0 +1,89 @@
+package com.stability.coareport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stability.coareport.dto.TestResultDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PdfParseCacheDiskSweepTest {
+
+    @TempDir
+    Path diskDir;
+
+    private PdfParseCache cache(long maxBytes, int maxFiles, long ttlHours) {
+        return new PdfParseCache(new ObjectMapper(), new SimpleMeterRegistry(), 256, diskDir.toString(),
+                maxBytes, maxFiles, ttlHours);
+    }
+
+    private static List<TestResultDto> results() {
+        TestResultDto result = new TestResultDto();
+        result.setTest("Assay");
+        result.setResult("99.2%");
+        return List.of(result);
+    }
+
+    private void age(String hash, long hoursAgo) throws IOException {
+        Path file = diskDir.resolve(hash + "-tests-v" + PdfParseCache.PARSER_VERSION + ".json");
+        Files.setLastModifiedTime(file,
+                FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(hoursAgo)));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedFilesBeyondTheFileCap() throws IOException {
+        PdfParseCache writer = cache(0, 2, 0);
+        for (String hash : List.of("a", "b", "c")) {
+            writer.putTestResults(hash, results());
+        }
+        age("a", 3);
+        age("b", 2);
+        age("c", 1);
+
+        // A disk hit makes "a" the most recently used
+        assertThat(cache(0, 2, 0).getTestResults("a")).isPresent();
+
+        writer.sweepDisk();
+
+        PdfParseCache reader = cache(0, 2, 0);
+        assertThat(reader.getTestResults("a")).isPresent();
+        assertThat(reader.getTestResults("b")).isEmpty();
+        assertThat(reader.getTestResults("c")).isPresent();
+    }
+
+    @Test
+    void evictsBeyondTheByteCap() throws IOException {
+        PdfParseCache writer = cache(1, 0, 0);
+        writer.putTestResults("a", results());
+
+        writer.sweepDisk();
+
+        try (var files = Files.list(diskDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void removesExpiredFilesAndOtherParserVersions() throws IOException {
+        PdfParseCache writer = cache(0, 0, 24);
+        writer.putTestResults("old", results());
+        writer.putTestResults("fresh", results());
+        age("old", 48);
+        Path otherVersion = Files.writeString(diskDir.resolve("x-tests-v0.json"), "[]");
+
+        writer.sweepDisk();
+
+        assertThat(otherVersion).doesNotExist();
+        PdfParseCache reader = cache(0, 0, 24);
+        assertThat(reader.getTestResults("old")).isEmpty();
+        assertThat(reader.getTestResults("fresh")).isPresent();
+    }
+}
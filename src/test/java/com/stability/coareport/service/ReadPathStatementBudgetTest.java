@@ -0,0 +1,113 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.dto.ComparisonResponse;
+import com.stability.coareport.dto.PredictionResponse;
+import com.stability.coareport.dto.StabilityReportRequest;
+import com.stability.coareport.dto.StabilityReportResponse;
+import com.stability.coareport.entity.Branch;
+import com.stability.coareport.entity.Report;
+import com.stability.coareport.support.ReportServiceTest;
+import com.stability.coareport.support.StatementBudget;
+import com.stability.coareport.support.TestData;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The comparison, prediction and stability report reads load their reports and test results in a
+ * fixed number of statements, however many batches and stations they cover.
+ */
+@ReportServiceTest
+@Import(StabilityReportService.class)
+class ReadPathStatementBudgetTest {
+
+    private static final String PRODUCT = "Paracetamol";
+    private static final String STORAGE = "25C/60%RH";
+    private static final int BATCHES = 30;
+    private static final List<String> STATIONS = List.of("Initial", "1M", "3M", "6M", "9M", "12M", "18M", "24M");
+    private static final int TESTS = 10;
+
+    /** Statements one read may prepare: its queries, never one per report or result. */
+    private static final int BUDGET = 3;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private StabilityReportService stabilityReportService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<String> batchNumbers = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        Branch branch = entityManager.persist(TestData.branch(entityManager.persist(TestData.company())));
+        for (int b = 1; b <= BATCHES; b++) {
+            String batchNo = String.format("B%03d", b);
+            batchNumbers.add(batchNo);
+            for (String station : STATIONS) {
+                Report report = TestData.report(branch, PRODUCT, batchNo, station);
+                TestData.results(report, TESTS);
+                entityManager.persist(report);
+            }
+        }
+        // Reads start from an empty persistence context, as they do in a request
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void compareReportsStaysWithinBudget() {
+        ComparisonResponse response = StatementBudget.assertAtMost(entityManagerFactory, BUDGET, () ->
+                reportService.compareReports(PRODUCT, batchNumbers, STORAGE, null, null,
+                        null, null, null, null, STATIONS, false));
+
+        assertThat(response.getBatches()).hasSize(BATCHES);
+    }
+
+    @Test
+    void getPredictionStaysWithinBudget() {
+        PredictionResponse response = StatementBudget.assertAtMost(entityManagerFactory, BUDGET, () ->
+                reportService.getPrediction(PRODUCT, STORAGE));
+
+        assertThat(response.getPredictions()).isNotEmpty();
+    }
+
+    @Test
+    void generateStabilityReportStaysWithinBudget() {
+        StabilityReportRequest request = new StabilityReportRequest();
+        request.setProductName(PRODUCT);
+        request.setBatchNo(batchNumbers.get(0));
+
+        StabilityReportResponse response = StatementBudget.assertAtMost(entityManagerFactory, BUDGET, () ->
+                stabilityReportService.generateStabilityReport(request));
+
+        assertThat(response.getSchedulePeriods()).hasSize(STATIONS.size());
+        assertThat(response.getTestResultRows()).hasSize(TESTS);
+    }
+
+    @Test
+    void generateBatchComparisonReportStaysWithinBudget() {
+        StabilityReportRequest request = new StabilityReportRequest();
+        request.setProductName(PRODUCT);
+        request.setBatchNumbers(batchNumbers);
+
+        StabilityReportResponse response = StatementBudget.assertAtMost(entityManagerFactory, BUDGET, () ->
+                stabilityReportService.generateBatchComparisonReport(request));
+
+        assertThat(response.getBatches()).hasSize(BATCHES);
+    }
+}
@@ -0,0 +1,119 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.dto.ManualTestEntryRequest;
+import com.stability.coareport.dto.ParsedPdfData;
+import com.stability.coareport.dto.ProductBasedUploadRequest;
+import com.stability.coareport.dto.TestResultDto;
+import com.stability.coareport.entity.Branch;
+import com.stability.coareport.entity.Report;
+import com.stability.coareport.entity.TestResult;
+import com.stability.coareport.exception.BranchNotFoundException;
+import com.stability.coareport.support.ReportServiceTest;
+import com.stability.coareport.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Every creation path builds the report and its test results the same way.
+ */
+@ReportServiceTest
+class ReportCreationTest {
+
+    // Mock from the slice
+    @Autowired
+    private OosRollupService oosRollupService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Branch branch;
+
+    @BeforeEach
+    void setUp() {
+        branch = entityManager.persist(TestData.branch(entityManager.persist(TestData.company())));
+    }
+
+    private static List<TestResultDto> testResults() {
+        return List.of(
+                new TestResultDto("1", "Description", "White tablets", "White to off-white tablets", null),
+                new TestResultDto("2", "Assay", "99.2%", "90.0% - 110.0%", "Reviewed"));
+    }
+
+    @Test
+    void saveParsedReportMapsHeaderAndResults() {
+        ParsedPdfData parsed = new ParsedPdfData();
+        parsed.setProductName("Paracetamol");
+        parsed.setBatchNo("B001");
+        parsed.setStorageCondition("25C/60%RH");
+        parsed.setSchedulePeriod("3M");
+        parsed.setCheckedBy("QA");
+        parsed.setTestResults(testResults());
+
+        Report report = reportService.saveParsedReport(parsed, branch, "coa.pdf",
+                Paths.get("uploads", "coa.pdf"), "importer");
+        entityManager.flush();
+        entityManager.clear();
+
+        Report saved = entityManager.find(Report.class, report.getId());
+        assertThat(saved.getProductName()).isEqualTo("Paracetamol");
+        assertThat(saved.getCheckedBy()).isEqualTo("QA");
+        assertThat(saved.getPdfFilePath()).isEqualTo(Paths.get("uploads", "coa.pdf").toString());
+        assertThat(saved.getUploadedBy()).isEqualTo("importer");
+        assertThat(saved.getApprovalStatus()).isEqualTo("pending");
+        assertThat(saved.getTestResults())
+                .extracting(TestResult::getTest, TestResult::getObjection)
+                .containsExactlyInAnyOrder(
+                        tuple("Description", null),
+                        tuple("Assay", "Reviewed"));
+        verify(oosRollupService).recordNewResults(same(report), anyCollection());
+    }
+
+    @Test
+    void manualEntryMapsItsOwnFieldsAndResults() {
+        ManualTestEntryRequest request = new ManualTestEntryRequest();
+        request.setBranchName(branch.getName());
+        request.setProductName("Paracetamol");
+        request.setBatchNo("B002");
+        request.setSpecificationId("SPEC-1");
+        request.setStpNumber("STP-9");
+        request.setTestResults(testResults());
+
+        Report report = reportService.createManualTestEntry(request, "analyst");
+
+        assertThat(report.getSpecification()).isEqualTo("SPEC-1");
+        assertThat(report.getStpNo()).isEqualTo("STP-9");
+        assertThat(report.getUploadedBy()).isEqualTo("analyst");
+        assertThat(report.getApprovalStatus()).isEqualTo("pending");
+        assertThat(report.getTestResults()).hasSize(2).allSatisfy(result -> assertThat(result.getId()).isNotNull());
+        verify(oosRollupService).recordNewResults(same(report), anyCollection());
+    }
+
+    @Test
+    void productBasedUploadForUnknownBranchIsRejectedBeforeStaging() {
+        String productName = "Unknown Branch Product " + System.nanoTime();
+        ProductBasedUploadRequest request = new ProductBasedUploadRequest(productName, null, "B003", null, null,
+                null, "25C/60%RH", null, "3M", 1L, branch.getId() + 1000);
+        MockMultipartFile file = new MockMultipartFile("file", "coa.pdf", "application/pdf", new byte[]{1, 2, 3});
+
+        assertThatThrownBy(() -> reportService.stageProductBasedUpload(file, request))
+                .isInstanceOf(BranchNotFoundException.class);
+        assertThat(Path.of("uploads", productName)).doesNotExist();
+    }
+}
@@ -0,0 +1,100 @@
+package com.stability.coareport.service;
+
+import com.stability.coareport.config.AuditorConfig;
+import com.stability.coareport.dto.OotGraphsDataResponse;
+import com.stability.coareport.dto.StabilityReportRequest;
+import com.stability.coareport.entity.Branch;
+import com.stability.coareport.entity.Product;
+import com.stability.coareport.entity.ProductOotConfiguration;
+import com.stability.coareport.entity.Report;
+import com.stability.coareport.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reports saved before {@code schedule_period_rank} existed have a null rank until the backfill
+ * reaches them; period filters and trend ordering still treat them by their period.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import({AuditorConfig.class, StabilityReportService.class, OotService.class})
+class SchedulePeriodRankFallbackTest {
+
+    private static final String PRODUCT = "Paracetamol";
+    private static final String BATCH = "B001";
+
+    @MockBean
+    private OosRollupService oosRollupService;
+
+    @Autowired
+    private StabilityReportService stabilityReportService;
+
+    @Autowired
+    private OotService ootService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        Branch branch = entityManager.persist(TestData.branch(entityManager.persist(TestData.company())));
+        // Saved out of schedule order; 12M and 6M predate the rank column
+        for (String period : List.of("12M", "Initial", "6M", "3M")) {
+            Report report = TestData.report(branch, PRODUCT, BATCH, period);
+            TestData.results(report, 1);
+            entityManager.persist(report);
+        }
+        entityManager.flush();
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE reports SET schedule_period_rank = NULL WHERE schedule_period IN ('12M', '6M')")
+                .executeUpdate();
+        entityManager.clear();
+    }
+
+    @Test
+    void periodCutoffKeepsReportsWithoutRank() {
+        StabilityReportRequest request = new StabilityReportRequest();
+        request.setProductName(PRODUCT);
+        request.setBatchNo(BATCH);
+        request.setSchedulePeriod("6M");
+
+        assertThat(stabilityReportService.generateStabilityReport(request).getSchedulePeriods())
+                .containsExactly("Initial", "3M", "6M");
+    }
+
+    @Test
+    void trendOrdersReportsWithoutRankByPeriod() {
+        Product product = new Product();
+        product.setProductName(PRODUCT);
+        product.setProductCode("P-001");
+        product.setBatchNo(BATCH);
+        product.setMfgDate(LocalDate.of(2024, 1, 1));
+        product.setExpDate(LocalDate.of(2026, 12, 31));
+        product.setStorageCondition("25C/60%RH");
+        product = entityManager.persist(product);
+
+        ProductOotConfiguration config = new ProductOotConfiguration();
+        config.setProductId(product.getId());
+        config.setSno("1");
+        config.setTestName("Test 1");
+        entityManager.persist(config);
+        entityManager.flush();
+
+        OotGraphsDataResponse response = ootService.getOotGraphsData(product.getId(), BATCH);
+
+        assertThat(response.getTestTrends().get("Test 1"))
+                .extracting(OotGraphsDataResponse.TestTrendData::getPeriod)
+                .containsExactly("Initial", "3M", "6M", "12M");
+    }
+}
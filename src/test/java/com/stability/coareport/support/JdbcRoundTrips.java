@@ -0,0 +1,114 @@
+package com.stability.coareport.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Counts the statements actually sent to the database: each {@code execute*} call and each
+ * {@code executeBatch} (however many rows it carries) is one round trip. Import it into a test
+ * context to wrap its data source.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class JdbcRoundTrips {
+
+    /** One round trip: the SQL and, for a batch, its number of rows (1 otherwise). */
+    public record RoundTrip(String sql, int rows) {
+    }
+
+    private static final List<RoundTrip> ROUND_TRIPS = new CopyOnWriteArrayList<>();
+
+    public static void clear() {
+        ROUND_TRIPS.clear();
+    }
+
+    public static List<RoundTrip> roundTrips() {
+        return List.copyOf(ROUND_TRIPS);
+    }
+
+    /** Round trips whose SQL starts with {@code prefix}, ignoring case. */
+    public static List<RoundTrip> startingWith(String prefix) {
+        String lower = prefix.toLowerCase(Locale.ROOT);
+        return ROUND_TRIPS.stream().filter(r -> r.sql().trim().toLowerCase(Locale.ROOT).startsWith(lower)).toList();
+    }
+
+    /** Round trips whose SQL contains {@code fragment}, ignoring case. */
+    public static List<RoundTrip> containing(String fragment) {
+        String lower = fragment.toLowerCase(Locale.ROOT);
+        return ROUND_TRIPS.stream().filter(r -> r.sql().toLowerCase(Locale.ROOT).contains(lower)).toList();
+    }
+
+    @Bean
+    static BeanPostProcessor jdbcRoundTripCounter() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? wrap(DataSource.class, dataSource, null) : bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Class<T> type, T target, String sql) {
+        return (T) Proxy.newProxyInstance(JdbcRoundTrips.class.getClassLoader(), new Class<?>[]{type},
+                new Counting(target, sql));
+    }
+
+    private static final class Counting implements InvocationHandler {
+        private final Object target;
+        private final String preparedSql;
+        private int batchedRows;
+
+        Counting(Object target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (target instanceof Statement) {
+                if (name.equals("addBatch")) {
+                    batchedRows++;
+                } else if (name.equals("executeBatch")) {
+                    ROUND_TRIPS.add(new RoundTrip(preparedSql, batchedRows));
+                    batchedRows = 0;
+                } else if (name.startsWith("execute")) {
+                    ROUND_TRIPS.add(new RoundTrip(args != null && args.length > 0 ? (String) args[0] : preparedSql, 1));
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection connection && name.equals("getConnection")) {
+                return wrap(Connection.class, connection, null);
+            }
+            if (target instanceof Connection && result instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                Class<? extends Statement> statementType = name.equals("prepareCall") ? java.sql.CallableStatement.class
+                        : name.equals("prepareStatement") ? java.sql.PreparedStatement.class : Statement.class;
+                return wrapStatement(statementType, (Statement) result, sql);
+            }
+            return result;
+        }
+    }
+
+    private static Statement wrapStatement(Class<? extends Statement> type, Statement statement, String sql) {
+        return (Statement) Proxy.newProxyInstance(JdbcRoundTrips.class.getClassLoader(), new Class<?>[]{type},
+                new Counting(statement, sql));
+    }
+}
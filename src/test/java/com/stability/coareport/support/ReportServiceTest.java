@@ -0,0 +1,47 @@
+package com.stability.coareport.support;
+
+import com.stability.coareport.config.AuditorConfig;
+import com.stability.coareport.service.OosRollupService;
+import com.stability.coareport.service.PdfParseCache;
+import com.stability.coareport.service.PdfParserService;
+import com.stability.coareport.service.PreviewStore;
+import com.stability.coareport.service.ReportService;
+import com.stability.coareport.service.SecondTableExtractorService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * JPA slice with a real {@link ReportService} on H2. Its parsing, caching, preview and rollup
+ * collaborators are mocks; autowire one to stub or verify it. Further services go in the test's
+ * own {@code @Import}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import({AuditorConfig.class, ReportService.class, ReportServiceTest.Metrics.class})
+@MockBean({PdfParserService.class, SecondTableExtractorService.class, PdfParseCache.class,
+        PreviewStore.class, OosRollupService.class})
+public @interface ReportServiceTest {
+
+    @TestConfiguration(proxyBeanMethods = false)
+    class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.stability.coareport.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails a test when an action prepares more SQL statements than its budget, counted with Hibernate
+ * statistics ({@code hibernate.generate_statistics} in application-test.properties). A lazy load per
+ * row (N+1) shows up as a count that grows with the data instead of staying fixed.
+ */
+public final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    public static <T> T assertAtMost(EntityManagerFactory entityManagerFactory, int maxStatements,
+                                     Supplier<T> action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = action.get();
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(statements)
+                .as("SQL statements (budget %d, entities loaded %d, collections fetched %d)",
+                        maxStatements, statistics.getEntityLoadCount(), statistics.getCollectionFetchCount())
+                .isLessThanOrEqualTo(maxStatements);
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.stability.coareport.support;
+
+import com.stability.coareport.entity.Branch;
+import com.stability.coareport.entity.Company;
+import com.stability.coareport.entity.Report;
+import com.stability.coareport.entity.TestResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unsaved entities for JPA tests.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static Company company() {
+        Company company = new Company();
+        company.setName("Test Pharma " + System.nanoTime());
+        company.setCode("TP");
+        company.setActive(true);
+        return company;
+    }
+
+    public static Branch branch(Company company) {
+        Branch branch = new Branch();
+        branch.setName("Test Branch");
+        branch.setCode("TB");
+        branch.setCompany(company);
+        branch.setActive(true);
+        return branch;
+    }
+
+    public static Report report(Branch branch, String productName, String batchNo, String schedulePeriod) {
+        Report report = new Report();
+        report.setBranch(branch);
+        report.setProductName(productName);
+        report.setProductCode("P-001");
+        report.setBatchNo(batchNo);
+        report.setSchedulePeriod(schedulePeriod);
+        report.setStorageCondition("25C/60%RH");
+        report.setMfgDate("01-JAN-2024");
+        report.setExpDate("DEC-2026");
+        report.setApprovalStatus("pending");
+        return report;
+    }
+
+    /** {@code count} numeric results named "Test 1".."Test n", linked to {@code report}. */
+    public static List<TestResult> results(Report report, int count) {
+        List<TestResult> results = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            TestResult result = new TestResult();
+            result.setReport(report);
+            result.setSNo(String.valueOf(i));
+            result.setTest("Test " + i);
+            result.setResult(String.valueOf(95 + (i % 10) * 0.5));
+            result.setSpecification("90.0 - 110.0");
+            results.add(result);
+        }
+        report.getTestResults().addAll(results);
+        return results;
+    }
+}
@@ -0,0 +1,61 @@
+package com.stability.coareport.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The COA extractor's precompiled footer patterns decide exactly like the regexes it used to run
+ * one by one.
+ */
+class CoaPatternsTest {
+
+    static Stream<String> lines() {
+        return Stream.of(
+                "Remarks: Complies",
+                "Checked by r.kumar Jul 14 2023 10:42 AM",
+                "Format No. QA/F/012-02",
+                "Format No. QA/F/012-02 Date: 14-Jul-2023",
+                "This document is generated electronically",
+                "Stability Pharma Limited, Plot No. 42, Industrial Area, Hyderabad - 500072",
+                "Acme Pharmaceuticals Pvt. Ltd.",
+                "Plot Nos. 12 & 13",
+                "Hyderabad-500072",
+                "Batch B23A0142 Lot 500072",
+                "2.1 Amoxicillin 99.2% 90.0% - 110.0% of the labelled amount",
+                "Expiry date: JAN-2026",
+                "pH 5.5 - 123456 units",
+                "-500072",
+                "Updated:");
+    }
+
+    @ParameterizedTest
+    @MethodSource("lines")
+    void coaFooterLineMatchesTheOriginalRegexes(String line) {
+        String l = line.trim().toLowerCase();
+
+        boolean original = l.matches(".*\\bdate:.*")
+                || l.matches("(?i).*(pharma|pharmaceuticals?)\\s+(limited|ltd\\.?|pvt\\.?).*")
+                || l.matches("(?i).*plot\\s+(no\\.?|nos?\\.?|number).*")
+                || l.matches(".*\\d{5,6}\\s*$")
+                || l.matches("(?i).*[A-Za-z\\s]+\\s*-\\s*\\d{5,6}.*");
+
+        assertThat(CoaPatterns.COA_FOOTER_LINE.matcher(l).find()).isEqualTo(original);
+    }
+
+    @ParameterizedTest
+    @MethodSource("lines")
+    void coaFooterLabelTailMatchesTheOriginalReplacements(String line) {
+        String text = "Assay " + line + " Approved by QA";
+
+        String original = text.replaceAll("\\s*Remarks:.*$", "")
+                .replaceAll("\\s*Checked by.*$", "")
+                .replaceAll("\\s*Approved by.*$", "")
+                .replaceAll("\\s*Date:.*$", "");
+
+        assertThat(CoaPatterns.COA_FOOTER_LABEL_TAIL.matcher(text).replaceFirst("")).isEqualTo(original);
+    }
+}
@@ -0,0 +1,158 @@
+package com.stability.coareport.support;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates CoA-shaped PDFs for the parser tests and benchmarks, so no customer documents are
+ * needed. Lives in {@code src/testFixtures/java}, which is a test source root and, under the
+ * {@code jmh} profile, a main source root as well.
+ * <p>
+ * Page 1 carries the first table with two wrapped header fields ("Storage / Condition period Date"
+ * and "Sample / orientation Type"). Every page carries the test-result table with parent S.No
+ * rows, nested 2.1-style rows, specifications that wrap onto a continuation row, and the footer
+ * and signature lines the extractors have to skip.
+ */
+public final class SyntheticCoaPdfs {
+
+    private static final float FONT_SIZE = 9f;
+    private static final float LINE_HEIGHT = 13f;
+    private static final float TOP = 800f;
+    private static final float BOTTOM = 70f;
+    private static final float X_SNO = 40f;
+    private static final float X_TEST = 80f;
+    private static final float X_RESULT = 290f;
+    private static final float X_SPEC = 400f;
+
+    private static final String[][] ASSAY_CHILDREN = {
+            {"Amoxicillin", "99.2%", "90.0% - 110.0% of the labelled amount"},
+            {"Clavulanic acid", "98.7%", "90.0% - 105.0% of the labelled amount"},
+            {"Total impurities", "0.42%", "NMT 2.0%"},
+    };
+
+    private SyntheticCoaPdfs() {
+    }
+
+    /**
+     * Quiets the parsers' per-row INFO logging, which would otherwise dominate every measurement.
+     */
+    public static void quietLogging() {
+        Logger root = LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+        if (root instanceof ch.qos.logback.classic.Logger logback) {
+            logback.setLevel(ch.qos.logback.classic.Level.WARN);
+        }
+    }
+
+    public static Path create(int pageCount) throws IOException {
+        Path file = Files.createTempFile("coa-synthetic-" + pageCount + "p-", ".pdf");
+        file.toFile().deleteOnExit();
+
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        int sNo = 1;
+        try (PDDocument document = new PDDocument()) {
+            for (int p = 0; p < pageCount; p++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                try (PDPageContentStream out = new PDPageContentStream(document, page)) {
+                    out.setFont(font, FONT_SIZE);
+                    float y = TOP;
+                    if (p == 0) {
+                        y = writeFirstTable(out, y);
+                    }
+                    y = writeTableHeader(out, y);
+                    while (y > BOTTOM + 6 * LINE_HEIGHT) {
+                        y = writeTestGroup(out, y, sNo++);
+                    }
+                    writeFooter(out, p + 1, pageCount);
+                }
+            }
+            document.save(file.toFile());
+        }
+        return file;
+    }
+
+    private static float writeFirstTable(PDPageContentStream out, float y) throws IOException {
+        String[] lines = {
+                "CERTIFICATE OF ANALYSIS - STABILITY STUDY",
+                "Product Name Amoxicillin and Potassium Clavulanate Tablets",
+                "Product Code AMC625 B.No. B23A0142 AR No. AR/STB/23/0917",
+                "Specification ID SPEC-AMC-014 Batch Size 250000 Tablets Protocol ID PRT-AMC-07",
+                "STP No. STP/AMC/004",
+                "Mfg Date JAN-2023",
+                "Storage 25C/60%RH Schedule 6 Months Schedule 12-JUL-2023",
+                "Condition period Date",
+                "Sample Upright Packing Alu-Alu Blister Pack Size 10x10",
+                "orientation Type",
+        };
+        for (String line : lines) {
+            text(out, X_SNO, y, line);
+            y -= LINE_HEIGHT;
+        }
+        return y - LINE_HEIGHT;
+    }
+
+    private static float writeTableHeader(PDPageContentStream out, float y) throws IOException {
+        row(out, y, "S.No.", "TEST", "RESULT", "SPECIFICATION");
+        return y - LINE_HEIGHT * 1.5f;
+    }
+
+    /**
+     * One parent row plus either nested child rows or a wrapped specification, alternating so each
+     * page mixes both shapes.
+     */
+    private static float writeTestGroup(PDPageContentStream out, float y, int sNo) throws IOException {
+        if (sNo % 2 == 0) {
+            row(out, y, String.valueOf(sNo), "Assay (by HPLC)", "", "");
+            y -= LINE_HEIGHT;
+            for (int c = 0; c < ASSAY_CHILDREN.length; c++) {
+                String[] child = ASSAY_CHILDREN[c];
+                row(out, y, sNo + "." + (c + 1), child[0], child[1], child[2]);
+                y -= LINE_HEIGHT;
+            }
+        } else {
+            row(out, y, String.valueOf(sNo), "Description", "Complies",
+                    "White to off-white, capsule shaped, film coated");
+            y -= LINE_HEIGHT;
+            row(out, y, "", "", "", "tablets debossed with 'AMC' on one side");
+            y -= LINE_HEIGHT;
+            row(out, y, "", "Dissolution (Q at 30 min)", "92%", "NLT 80% (Q)");
+            y -= LINE_HEIGHT;
+        }
+        return y;
+    }
+
+    private static void writeFooter(PDPageContentStream out, int page, int pageCount) throws IOException {
+        text(out, X_SNO, BOTTOM + 2 * LINE_HEIGHT, "Checked by r.kumar Jul 14 2023 10:42 AM");
+        text(out, X_SNO, BOTTOM + LINE_HEIGHT, "Format No. QA/F/012-02 Date: 14-Jul-2023");
+        text(out, X_SNO, BOTTOM, "Stability Pharma Limited, Plot No. 42, Industrial Area, Hyderabad - 500072");
+        text(out, X_SPEC + 80, BOTTOM, "Page " + page + " of " + pageCount);
+    }
+
+    private static void row(PDPageContentStream out, float y, String sNo, String test, String result, String spec)
+            throws IOException {
+        text(out, X_SNO, y, sNo);
+        text(out, X_TEST, y, test);
+        text(out, X_RESULT, y, result);
+        text(out, X_SPEC, y, spec);
+    }
+
+    private static void text(PDPageContentStream out, float x, float y, String text) throws IOException {
+        if (text.isEmpty()) {
+            return;
+        }
+        out.beginText();
+        out.newLineAtOffset(x, y);
+        out.showText(text);
+        out.endText();
+    }
+}